@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token bucket на клиента в виде GCRA: состояние корзины — одно число, момент, к которому
+// она снова наполнится до конца. Запрос сдвигает этот момент на интервал между разрешениями
+// одним CAS и отклоняется, если момент ушёл вперёд больше чем на burst интервалов.
+// Полная корзина неотличима от новой, поэтому простаивающие клиенты просто удаляются.
+// Когда карта заполнена, из неё сначала убираются все наполнившиеся корзины: поток одноразовых
+// ключей освобождает место уже через интервал, и прочие клиенты не попадают в общую корзину
+@Component
+@ConditionalOnProperty(name = "filmorate.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class ClientRateLimiter {
+    // Клиенты сверх max-clients делят одну корзину: поток случайных id не раздувает карту
+    static final String OVERFLOW_CLIENT = "*";
+    // Обход заполненной карты стоит O(max-clients), поэтому выполняется не чаще этого
+    private static final long SWEEP_NANOS = Duration.ofMillis(10).toNanos();
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxClients;
+    private final long idleNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong lastSweep;
+
+    @Autowired
+    public ClientRateLimiter(@Value("${filmorate.admission.rate:500}") final int permitsPerSecond,
+                             @Value("${filmorate.admission.burst:1000}") final int burst,
+                             @Value("${filmorate.admission.max-clients:100000}") final int maxClients,
+                             @Value("${filmorate.admission.idle-timeout:PT1M}") final Duration idleTimeout) {
+        this(permitsPerSecond, burst, maxClients, idleTimeout, System::nanoTime);
+    }
+
+    ClientRateLimiter(int permitsPerSecond, int burst, int maxClients, Duration idleTimeout, LongSupplier nanoClock) {
+        if (permitsPerSecond < 1 || burst < 1) {
+            throw new IllegalArgumentException("Лимит и запас запросов должны быть положительными");
+        }
+        this.intervalNanos = Math.max(1, Duration.ofSeconds(1).toNanos() / permitsPerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.maxClients = maxClients;
+        this.idleNanos = idleTimeout.toNanos();
+        this.nanoClock = nanoClock;
+        this.lastSweep = new AtomicLong(nanoClock.getAsLong() - SWEEP_NANOS);
+    }
+
+    public boolean tryAcquire(String client) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucketOf(client, now);
+        while (true) {
+            long refilledAt = bucket.get();
+            long next = Math.max(refilledAt, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(refilledAt, next)) {
+                return true;
+            }
+        }
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    // Удаляется только корзина, наполнившаяся до конца: если параллельный запрос успел её взять,
+    // его разрешение спишется с удалённой корзины, а новая всё равно начнётся полной
+    @Scheduled(initialDelayString = "${filmorate.admission.idle-timeout:PT1M}",
+            fixedDelayString = "${filmorate.admission.idle-timeout:PT1M}")
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> now - bucket.get() > idleNanos);
+    }
+
+    private AtomicLong bucketOf(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            evictRefilled(now);
+        }
+        String key = buckets.size() < maxClients ? client : OVERFLOW_CLIENT;
+        return buckets.computeIfAbsent(key, ignored -> new AtomicLong(now));
+    }
+
+    private void evictRefilled(long now) {
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_NANOS && lastSweep.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+    }
+}
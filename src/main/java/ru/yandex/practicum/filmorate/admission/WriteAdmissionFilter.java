@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.filmorate.model.ErrorResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+// Допуск запросов на запись в /films и /users до разбора тела, валидации и хранилища:
+// сначала лимит клиента, затем общий предел одновременных записей. Отказ — 429 с Retry-After,
+// чтобы массовая загрузка не вытесняла интерактивных клиентов. Чтение не ограничивается.
+// Клиент — адрес соединения. Заголовок с id клиента выбирает сам клиент, и смена значения давала бы
+// ему новую корзину на каждый запрос, поэтому заголовку верим только от доверенных прокси
+@Component
+@ConditionalOnProperty(name = "filmorate.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class WriteAdmissionFilter extends OncePerRequestFilter {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ClientRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+    private final int maxConcurrentWrites;
+    private final Semaphore writePermits;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public WriteAdmissionFilter(final ClientRateLimiter rateLimiter,
+                                final ObjectMapper objectMapper,
+                                final MeterRegistry registry,
+                                @Value("${filmorate.admission.client-header:X-Client-Id}") final String clientHeader,
+                                @Value("${filmorate.admission.trusted-proxies:}") final List<String> trustedProxies,
+                                @Value("${filmorate.admission.max-concurrent-writes:512}") final int maxConcurrentWrites) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.maxConcurrentWrites = maxConcurrentWrites;
+        this.writePermits = new Semaphore(maxConcurrentWrites);
+        rateLimited = rejectedCounter(registry, "rate_limit");
+        shed = rejectedCounter(registry, "concurrency");
+        Gauge.builder("filmorate.admission.in_flight", this, WriteAdmissionFilter::inFlightWrites)
+                .description("Запросы на запись, выполняющиеся сейчас")
+                .register(registry);
+        Gauge.builder("filmorate.admission.clients", rateLimiter, ClientRateLimiter::trackedClients)
+                .description("Клиенты с активной корзиной лимита")
+                .register(registry);
+    }
+
+    public int inFlightWrites() {
+        return maxConcurrentWrites - writePermits.availablePermits();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return !path.startsWith("/films") && !path.startsWith("/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!rateLimiter.tryAcquire(clientOf(request))) {
+            rateLimited.increment();
+            reject(response, "Превышен лимит запросов на запись, повторите позже");
+            return;
+        }
+        if (!writePermits.tryAcquire()) {
+            shed.increment();
+            reject(response, "Сервер перегружен запросами на запись, повторите позже");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            writePermits.release();
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+        String client = request.getHeader(clientHeader);
+        return client == null || client.isEmpty() ? address : client;
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(LocalDateTime.now(), HttpStatus.TOO_MANY_REQUESTS.value(), message, null));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("filmorate.admission.rejected")
+                .description("Запросы на запись, отклонённые до обработки")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+// Тег отдельной сущности — её версия в кавычках: "3". По нему работает условное обновление через If-Match
+final class EntityTag {
+
+    private EntityTag() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Ожидаемая версия для обновления: из If-Match, а без заголовка — из поля version тела.
+    // "*" означает любую существующую версию
+    static Long expectedVersion(String ifMatch, Long bodyVersion) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return bodyVersion;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Заголовок If-Match должен содержать одну версию сущности: " + ifMatch);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Поток изменений фильмов и пользователей в формате SSE. id события — его номер в буфере,
+// поэтому клиент возобновляет чтение с места обрыва через since или стандартный Last-Event-ID.
+// Каждого подписчика обслуживает свой виртуальный поток: медленный клиент задерживает только себя,
+// а писатели буфера подписчиков не ждут вовсе.
+@Slf4j
+@RestController
+public class EventController {
+    private final ChangeEventBuffer changeEvents;
+    private final Duration heartbeat;
+    private final ExecutorService subscribers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public EventController(final ChangeEventBuffer changeEvents,
+                           @Value("${filmorate.events.heartbeat:PT15S}") final Duration heartbeat) {
+        this.changeEvents = changeEvents;
+        this.heartbeat = heartbeat;
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(required = false) Long since,
+                                @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = since != null ? since : lastEventId != null ? lastEventId : changeEvents.lastSequence();
+        if (from < 0) {
+            throw new ValidationException("Параметр since не может быть отрицательным");
+        }
+        SseEmitter emitter = new SseEmitter(-1L);
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+        subscribers.execute(() -> deliver(emitter, open, from + 1));
+        return emitter;
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.shutdownNow();
+    }
+
+    private void deliver(SseEmitter emitter, AtomicBoolean open, long next) {
+        try {
+            while (open.get()) {
+                if (changeEvents.isOverwritten(next)) {
+                    // Подписчик отстал больше чем на ёмкость буфера: сообщаем, сколько событий потеряно,
+                    // и продолжаем с самого старого доступного. Клиенту нужно перечитать коллекции
+                    long oldest = changeEvents.oldestSequence();
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(oldest - 1))
+                            .name("reset")
+                            .data(Map.of("lost", oldest - next, "resumeFrom", oldest), MediaType.APPLICATION_JSON));
+                    next = oldest;
+                    continue;
+                }
+                ChangeEvent event = changeEvents.get(next);
+                if (event == null) {
+                    if (!changeEvents.await(next, heartbeat)) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    continue;
+                }
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getSequence()))
+                        .name(event.getType().name())
+                        .data(event.getEntity(), MediaType.APPLICATION_JSON));
+                next++;
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Подписчик на события отключился: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+}
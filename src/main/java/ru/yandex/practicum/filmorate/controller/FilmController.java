@@ -1,66 +1,235 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSearchQuery;
 import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.service.BatchOutcome;
+import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.time.LocalDate;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/films")
 @Slf4j
+@RequiredArgsConstructor
 public class FilmController {
-    private final Map<Long, Film> films = new HashMap<>();
+    private final FilmService filmService;
+    private final NdjsonWriter ndjsonWriter;
+    private final ResponseCache responseCache;
+    private final Validator validator;
     private static final LocalDate CINEMA_BIRTHDAY = LocalDate.of(1895, 12, 28);
+    private static final String RELEASE_DATE_ERROR = "Дата релиза должна быть не раньше 28 декабря 1895 года";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    // Отказы с постоянным текстом создаются один раз: исключения без стека и неизменяемы
+    private static final ValidationException RELEASE_DATE_TOO_EARLY = new ValidationException(RELEASE_DATE_ERROR);
+    private static final ValidationException LIMIT_OUT_OF_RANGE =
+            new ValidationException("Параметр limit должен быть от 1 до " + MAX_PAGE_SIZE);
+    private static final ValidationException COUNT_OUT_OF_RANGE =
+            new ValidationException("Параметр count должен быть от 1 до " + MAX_PAGE_SIZE);
+    private static final ValidationException BATCH_TOO_LARGE =
+            new ValidationException("Пакет не может содержать больше " + MAX_BATCH_SIZE + " элементов");
+    private static final ConditionsNotMetException MISSING_ID = new ConditionsNotMetException("Не указан id фильма");
 
     @GetMapping
-    public Collection<Film> findAll() {
-        return films.values();
+    public ResponseEntity<StreamingResponseBody> getAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseCache.stream(filmService.version(), ifNoneMatch, filmService.findAll());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<byte[]> getPage(@RequestParam(defaultValue = "0") long after, @RequestParam int limit,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                          String ifNoneMatch) {
+        checkLimit(limit);
+        return responseCache.respond("/films", "?after=" + after + "&limit=" + limit, filmService.version(),
+                ifNoneMatch, () -> filmService.findAfter(after).stream().limit(limit).toList());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody stream(@RequestParam(defaultValue = "0") long after) {
+        return ndjsonWriter.write(filmService.findAfter(after));
+    }
+
+    @GetMapping("/search")
+    public List<Film> search(@RequestParam(required = false) String q,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                             LocalDate releasedFrom,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                             LocalDate releasedTo,
+                             @RequestParam(required = false) Integer minDuration,
+                             @RequestParam(required = false) Integer maxDuration,
+                             @RequestParam(defaultValue = "100") int limit) {
+        checkLimit(limit);
+        return filmService.search(FilmSearchQuery.builder()
+                .text(q)
+                .releasedFrom(releasedFrom)
+                .releasedTo(releasedTo)
+                .minDuration(minDuration)
+                .maxDuration(maxDuration)
+                .limit(limit)
+                .build());
+    }
+
+    @GetMapping("/popular")
+    public List<Film> findPopular(@RequestParam(defaultValue = "10") int count) {
+        if (count < 1 || count > MAX_PAGE_SIZE) {
+            throw COUNT_OUT_OF_RANGE;
+        }
+        return filmService.findPopular(count);
+    }
+
+    @PutMapping("/{id}/like/{userId}")
+    public void addLike(@PathVariable long id, @PathVariable long userId) {
+        filmService.addLike(id, userId);
+        log.info("Пользователь {} поставил лайк фильму {}", userId, id);
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public void removeLike(@PathVariable long id, @PathVariable long userId) {
+        filmService.removeLike(id, userId);
+        log.info("Пользователь {} убрал лайк с фильма {}", userId, id);
     }
 
     @PostMapping
     public Film add(@Valid @RequestBody Film film) {
         validateFilm(film);
-        film.setId(getNextId());
-        films.put(film.getId(), film);
+        filmService.add(film);
         log.info("Фильм с id = {} успешно добавлен", film.getId());
         return film;
     }
 
+    public Film update(Film newFilm) {
+        return update(newFilm, null).getBody();
+    }
+
+    // При несовпадении версии — 409, клиент перечитывает фильм и повторяет изменение
     @PutMapping
-    public Film update(@Valid @RequestBody Film newFilm) {
+    public ResponseEntity<Film> update(@Valid @RequestBody Film newFilm,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (newFilm.getId() == null) {
-            throw new ConditionsNotMetException("Не указан id фильма");
+            throw MISSING_ID;
         }
 
         validateFilm(newFilm);
+        newFilm.setVersion(EntityTag.expectedVersion(ifMatch, newFilm.getVersion()));
+
+        Film film = filmService.update(newFilm)
+                .orElseThrow(() -> new NotFoundException("Фильм с id = " + newFilm.getId() + " не найден"));
+        log.info("Фильм с id = {} успешно обновлён", film.getId());
+        return ResponseEntity.ok().eTag(EntityTag.of(film.getVersion())).body(film);
+    }
+
+    @PostMapping("/batch")
+    public BatchResult<Film> addAll(@RequestBody List<Film> films) {
+        checkBatchSize(films.size());
+        List<BatchItemResult<Film>> results = new ArrayList<>(films.size());
+        List<Film> valid = new ArrayList<>(films.size());
+        List<Integer> validIndexes = new ArrayList<>(films.size());
+        for (int i = 0; i < films.size(); i++) {
+            List<String> errors = batchErrors(films.get(i));
+            if (errors.isEmpty()) {
+                valid.add(films.get(i));
+                validIndexes.add(i);
+            } else {
+                results.add(BatchItemResult.failure(i, HttpStatus.BAD_REQUEST.value(), errors));
+            }
+        }
+
+        filmService.addAll(valid);
+        for (int i = 0; i < valid.size(); i++) {
+            results.add(BatchItemResult.success(validIndexes.get(i), HttpStatus.OK.value(), valid.get(i)));
+        }
+        log.info("Пакетно добавлено фильмов: {} из {}", valid.size(), films.size());
+        return new BatchResult<>(results);
+    }
+
+    @PutMapping("/batch")
+    public BatchResult<Film> updateAll(@RequestBody List<Film> newFilms) {
+        checkBatchSize(newFilms.size());
+        List<BatchItemResult<Film>> results = new ArrayList<>(newFilms.size());
+        List<Film> valid = new ArrayList<>(newFilms.size());
+        List<Integer> validIndexes = new ArrayList<>(newFilms.size());
+        for (int i = 0; i < newFilms.size(); i++) {
+            Film newFilm = newFilms.get(i);
+            List<String> errors = batchErrors(newFilm);
+            if (errors.isEmpty() && newFilm.getId() == null) {
+                errors = List.of("Не указан id фильма");
+            }
+            if (errors.isEmpty()) {
+                valid.add(newFilm);
+                validIndexes.add(i);
+            } else {
+                results.add(BatchItemResult.failure(i, HttpStatus.BAD_REQUEST.value(), errors));
+            }
+        }
+
+        List<BatchOutcome<Film>> updated = filmService.updateAll(valid);
+        for (int i = 0; i < valid.size(); i++) {
+            results.add(batchItem(validIndexes.get(i), updated.get(i), valid.get(i).getId()));
+        }
+        BatchResult<Film> result = new BatchResult<>(results);
+        log.info("Пакетно обновлено фильмов: {} из {}", result.getSucceeded(), newFilms.size());
+        return result;
+    }
 
-        if (films.containsKey(newFilm.getId())) {
-            Film oldFilm = films.get(newFilm.getId());
-            oldFilm.setName(newFilm.getName());
-            oldFilm.setDescription(newFilm.getDescription());
-            oldFilm.setReleaseDate(newFilm.getReleaseDate());
-            oldFilm.setDuration(newFilm.getDuration());
-            log.info("Фильм с id = {} успешно обновлён", newFilm.getId());
-            return oldFilm;
+    // Конфликт версии отвечает 409 только для своего элемента, остальные элементы пакета сохраняют свой итог
+    private static BatchItemResult<Film> batchItem(int index, BatchOutcome<Film> outcome, Long id) {
+        if (outcome.conflict() != null) {
+            return BatchItemResult.failure(index, HttpStatus.CONFLICT.value(),
+                    List.of(outcome.conflict().getMessage()));
         }
-        throw new NotFoundException(String.format("Фильм с id = %d не найден", newFilm.getId()));
+        if (outcome.entity() != null) {
+            return BatchItemResult.success(index, HttpStatus.OK.value(), outcome.entity());
+        }
+        return BatchItemResult.failure(index, HttpStatus.NOT_FOUND.value(),
+                List.of(String.format("Фильм с id = %d не найден", id)));
+    }
+
+    private List<String> batchErrors(Film film) {
+        if (film == null) {
+            return List.of("Пустой элемент пакета");
+        }
+        List<String> errors = new ArrayList<>();
+        validator.validate(film).forEach(violation -> errors.add(violation.getMessage()));
+        if (film.getReleaseDate() != null && film.getReleaseDate().isBefore(CINEMA_BIRTHDAY)) {
+            errors.add(RELEASE_DATE_ERROR);
+        }
+        return errors;
     }
 
-    private void validateFilm(Film film) {
+    private void checkBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw BATCH_TOO_LARGE;
+        }
+    }
+
+    static void validateFilm(Film film) {
         if (film.getReleaseDate().isBefore(CINEMA_BIRTHDAY)) {
-            throw new ValidationException("Дата релиза должна быть не раньше 28 декабря 1895 года");
+            throw RELEASE_DATE_TOO_EARLY;
         }
     }
 
-    private long getNextId() {
-        return films.keySet().stream().mapToLong(id -> id).max().orElse(0) + 1;
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw LIMIT_OUT_OF_RANGE;
+        }
     }
 }
\ No newline at end of file
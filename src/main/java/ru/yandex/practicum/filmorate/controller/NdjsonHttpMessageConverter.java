@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+
+// Читает тело application/x-ndjson в список: по одному JSON-объекту на строку
+@Component
+public class NdjsonHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    public NdjsonHttpMessageConverter(final ObjectMapper objectMapper) {
+        super(objectMapper, MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    public boolean canRead(final Type type, @Nullable final Class<?> contextClass, @Nullable final MediaType mediaType) {
+        JavaType javaType = getJavaType(type, contextClass);
+        return canRead(mediaType) && javaType.isCollectionLikeType()
+                && javaType.getRawClass().isAssignableFrom(ArrayList.class);
+    }
+
+    @Override
+    public boolean canRead(final Class<?> clazz, @Nullable final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(final Class<?> clazz, @Nullable final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable final Type type, final Class<?> clazz, @Nullable final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(final Type type, @Nullable final Class<?> contextClass, final HttpInputMessage inputMessage)
+            throws IOException {
+        JavaType listType = getJavaType(type, contextClass);
+        try (MappingIterator<Object> items = getObjectMapper()
+                .readerFor(listType.getContentType())
+                .readValues(inputMessage.getBody())) {
+            return items.readAll();
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("Некорректная строка NDJSON: " + e.getOriginalMessage(), e,
+                    inputMessage);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Component
+@RequiredArgsConstructor
+public class NdjsonWriter {
+    private static final int FLUSH_EVERY = 256;
+
+    private final ObjectMapper objectMapper;
+
+    // Пишет элементы в ответ по одному, не собирая весь список в памяти
+    public StreamingResponseBody write(final Iterable<?> items) {
+        return out -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+                int written = 0;
+                for (Object item : items) {
+                    writer.write(item);
+                    if (++written % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                }
+                if (written > 0) {
+                    out.write('\n');
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+
+import java.util.Set;
+
+// Реактивный вариант FilmController с теми же правилами проверки
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReactiveFilmHandler {
+    private static final ValidationException INVALID_AFTER =
+            new ValidationException("Параметр after должен быть целым числом");
+
+    private final ReactiveFilmService filmService;
+    private final ReactiveJsonWriter jsonWriter;
+    private final Validator validator;
+
+    public Mono<ServerResponse> findAll(ServerRequest request) {
+        return after(request).flatMap(after -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonWriter.jsonArray(filmService.findAfter(after)), DataBuffer.class));
+    }
+
+    // Следующая пачка фильмов читается из хранилища, только когда клиент принял предыдущую,
+    // поэтому медленный клиент не копит буфер и не занимает поток
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        return after(request).flatMap(after -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(jsonWriter.ndjson(filmService.findAfter(after)), DataBuffer.class));
+    }
+
+    public Mono<ServerResponse> add(ServerRequest request) {
+        return request.bodyToMono(Film.class)
+                .doOnNext(this::validate)
+                .flatMap(filmService::add)
+                .doOnNext(film -> log.info("Фильм с id = {} успешно добавлен", film.getId()))
+                .flatMap(film -> ServerResponse.ok().bodyValue(film));
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        return request.bodyToMono(Film.class)
+                .doOnNext(newFilm -> {
+                    if (newFilm.getId() == null) {
+                        throw new ConditionsNotMetException("Не указан id фильма");
+                    }
+                    validate(newFilm);
+                    newFilm.setVersion(EntityTag.expectedVersion(
+                            request.headers().firstHeader(HttpHeaders.IF_MATCH), newFilm.getVersion()));
+                })
+                .flatMap(newFilm -> filmService.update(newFilm)
+                        .switchIfEmpty(Mono.error(() -> new NotFoundException(
+                                String.format("Фильм с id = %d не найден", newFilm.getId())))))
+                .doOnNext(film -> log.info("Фильм с id = {} успешно обновлён", film.getId()))
+                .flatMap(film -> ServerResponse.ok().eTag(EntityTag.of(film.getVersion())).bodyValue(film));
+    }
+
+    private void validate(Film film) {
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        FilmController.validateFilm(film);
+    }
+
+    // Как и сервлетный стек, на нечисловой after отвечаем 400, а не 500. Ошибка приходит сигналом,
+    // а не исключением из обработчика, иначе её не увидят onError маршрутов
+    static Mono<Long> after(ServerRequest request) {
+        return Mono.fromCallable(() -> request.queryParam("after").map(Long::parseLong).orElse(0L))
+                .onErrorMap(NumberFormatException.class, e -> INVALID_AFTER);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+// Кодирует поток сущностей пачками по BATCH_SIZE: стандартный кодек пишет и сбрасывает
+// в сокет каждый элемент отдельно. Пачка запрашивается у источника, только когда клиент
+// принял предыдущую, так что обратное давление сохраняется.
+@Component
+public class ReactiveJsonWriter {
+    private static final int BATCH_SIZE = 256;
+
+    private final ObjectWriter writer;
+
+    public ReactiveJsonWriter(final ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer();
+    }
+
+    public Flux<DataBuffer> ndjson(Flux<?> items) {
+        return items.buffer(BATCH_SIZE)
+                .map(batch -> encode(batch, "", "\n", "\n"));
+    }
+
+    public Flux<DataBuffer> jsonArray(Flux<?> items) {
+        return Flux.concat(
+                Flux.just(wrap(new byte[]{'['})),
+                items.buffer(BATCH_SIZE)
+                        .index()
+                        .map(batch -> encode(batch.getT2(), batch.getT1() == 0 ? "" : ",", ",", "")),
+                Flux.just(wrap(new byte[]{']'})));
+    }
+
+    private DataBuffer encode(List<?> batch, String prefix, String separator, String suffix) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 128);
+        try {
+            out.writeBytes(prefix.getBytes());
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) {
+                    out.writeBytes(separator.getBytes());
+                }
+                out.writeBytes(writer.writeValueAsBytes(batch.get(i)));
+            }
+            out.writeBytes(suffix.getBytes());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return wrap(out.toByteArray());
+    }
+
+    private static DataBuffer wrap(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ErrorResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+
+// Неблокирующий стек на Reactor Netty, который работает рядом с сервлетным на отдельном порту.
+// Маршруты и формат ошибок совпадают с FilmController, UserController и GlobalExceptionHandler.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true")
+public class ReactiveServerConfig {
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveRoutes(ReactiveFilmHandler films, ReactiveUserHandler users) {
+        return routes(films, users);
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveServer(RouterFunction<ServerResponse> reactiveRoutes,
+                                           ObjectMapper objectMapper,
+                                           @Value("${filmorate.reactive.port:8081}") int port) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        DisposableServer server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(reactiveRoutes, strategies)))
+                .bindNow();
+        log.info("Реактивный сервер запущен на порту {}", server.port());
+        return server;
+    }
+
+    public static RouterFunction<ServerResponse> routes(ReactiveFilmHandler films, ReactiveUserHandler users) {
+        return RouterFunctions.route()
+                .GET("/films", accept(MediaType.APPLICATION_NDJSON), films::stream)
+                .GET("/films", films::findAll)
+                .POST("/films", films::add)
+                .PUT("/films", films::update)
+                .GET("/users", accept(MediaType.APPLICATION_NDJSON), users::stream)
+                .GET("/users", users::findAll)
+                .POST("/users", users::add)
+                .PUT("/users", users::update)
+                .onError(ConstraintViolationException.class, (e, request) -> badRequest(
+                        ((ConstraintViolationException) e).getConstraintViolations().stream()
+                                .map(ConstraintViolation::getMessage)
+                                .toList()))
+                .onError(ValidationException.class, (e, request) -> error(HttpStatus.BAD_REQUEST, e))
+                .onError(ConflictException.class, (e, request) -> error(HttpStatus.CONFLICT, e))
+                .onError(e -> e instanceof NotFoundException || e instanceof ConditionsNotMetException,
+                        (e, request) -> error(HttpStatus.NOT_FOUND, e))
+                .build();
+    }
+
+    private static Mono<ServerResponse> badRequest(List<String> errors) {
+        log.warn("Ошибки валидации: {}", errors);
+        return ServerResponse.badRequest()
+                .bodyValue(new ErrorResponse(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(), null, errors));
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, Throwable e) {
+        log.warn(e.getMessage());
+        return ServerResponse.status(status)
+                .bodyValue(new ErrorResponse(LocalDateTime.now(), status.value(), e.getMessage(), null));
+    }
+}
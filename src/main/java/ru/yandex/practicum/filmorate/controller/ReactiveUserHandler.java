@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ReactiveUserService;
+import ru.yandex.practicum.filmorate.validation.CreateValidationGroup;
+import ru.yandex.practicum.filmorate.validation.UpdateValidationGroup;
+
+import java.util.Set;
+
+// Реактивный вариант UserController с теми же правилами проверки
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReactiveUserHandler {
+    private final ReactiveUserService userService;
+    private final ReactiveJsonWriter jsonWriter;
+    private final Validator validator;
+
+    public Mono<ServerResponse> findAll(ServerRequest request) {
+        return ReactiveFilmHandler.after(request).flatMap(after -> {
+            Flux<User> users = userService.findAfter(after);
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(jsonWriter.jsonArray(users), DataBuffer.class);
+        });
+    }
+
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        return ReactiveFilmHandler.after(request).flatMap(after -> {
+            Flux<User> users = userService.findAfter(after);
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(jsonWriter.ndjson(users), DataBuffer.class);
+        });
+    }
+
+    public Mono<ServerResponse> add(ServerRequest request) {
+        return request.bodyToMono(User.class)
+                .doOnNext(user -> {
+                    validate(user, CreateValidationGroup.class);
+                    UserController.checkName(user);
+                })
+                .flatMap(userService::add)
+                .doOnNext(user -> log.info("Пользователь с id = {} успешно добавлен", user.getId()))
+                .flatMap(user -> ServerResponse.ok().bodyValue(user));
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        return request.bodyToMono(User.class)
+                .doOnNext(newUser -> {
+                    validate(newUser, UpdateValidationGroup.class);
+                    if (newUser.getId() == null) {
+                        throw new ConditionsNotMetException("Не указан id пользователя");
+                    }
+                    UserController.checkName(newUser);
+                    newUser.setVersion(EntityTag.expectedVersion(
+                            request.headers().firstHeader(HttpHeaders.IF_MATCH), newUser.getVersion()));
+                })
+                .flatMap(newUser -> userService.update(newUser)
+                        .switchIfEmpty(Mono.error(() -> new NotFoundException(
+                                String.format("Пользователь с id=%d не найден", newUser.getId())))))
+                .doOnNext(user -> log.info("Пользователь с id={} успешно обновлён", user.getId()))
+                .flatMap(user -> ServerResponse.ok().eTag(EntityTag.of(user.getVersion())).bodyValue(user));
+    }
+
+    private void validate(User user, Class<?> group) {
+        Set<ConstraintViolation<User>> violations = validator.validate(user, group);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Кэш сериализованных ответов для GET страниц коллекций. Ключ — коллекция и параметры запроса,
+// значение действительно только для той версии коллекции, при которой было построено.
+// Версию выдаёт сервис и увеличивает при каждом изменении. Как только в кэш попадает более
+// новая версия коллекции, все её страницы со старой версией удаляются сразу.
+// Параметры страниц выбирает клиент, поэтому размер считается с ключом и накладными расходами
+// записи, а число записей ограничено отдельно: перебор after не вырастит кэш из пустых страниц.
+// Коллекция целиком не кэшируется: её размер ничем не ограничен, поэтому она пишется потоком,
+// а от повторной выдачи защищает только ETag версии.
+@Component
+public class ResponseCache {
+    private final ObjectMapper objectMapper;
+    // Заголовки строки, массива и записи LinkedHashMap, сама запись CachedBody — оценка сверху
+    private static final int ENTRY_OVERHEAD = 160;
+
+    private final long maxBytes;
+    private final int maxEntries;
+    // ETag включает метку запуска: после перезапуска версии начинаются заново
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final Lock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedBody> bodies = new LinkedHashMap<>(64, 0.75f, true);
+    // Самая свежая версия каждой коллекции, попавшая в кэш
+    private final Map<String, Long> latestVersions = new HashMap<>();
+    private long cachedBytes;
+
+    public ResponseCache(final ObjectMapper objectMapper,
+                         @Value("${filmorate.cache.max-size:64MB}") final DataSize maxSize,
+                         @Value("${filmorate.cache.max-entries:4096}") final int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxSize.toBytes();
+        this.maxEntries = maxEntries;
+    }
+
+    // Версию нужно прочитать до построения тела: тогда тело не старее версии, под которой оно кэшируется
+    // query — параметры страницы внутри коллекции; тело должно быть ограничено её limit
+    public ResponseEntity<byte[]> respond(String collection, String query, long version, String ifNoneMatch,
+                                          Supplier<?> body) {
+        String etag = etag(version);
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        String resource = collection + query;
+        byte[] json = find(resource, version);
+        if (json == null) {
+            json = serialize(body.get());
+            store(collection, resource, version, json);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json);
+    }
+
+    // Коллекция целиком: JSON-массив пишется по одному элементу и нигде не сохраняется.
+    // Версию нужно прочитать до обхода элементов: тогда тело не старее ETag
+    public ResponseEntity<StreamingResponseBody> stream(long version, String ifNoneMatch, Iterable<?> items) {
+        String etag = etag(version);
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(out)) {
+                for (Object item : items) {
+                    writer.write(item);
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    public long cachedBytes() {
+        lock.lock();
+        try {
+            return cachedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int cachedEntries() {
+        lock.lock();
+        try {
+            return bodies.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] find(String resource, long version) {
+        lock.lock();
+        try {
+            CachedBody cached = bodies.get(resource);
+            return cached != null && cached.version() == version ? cached.json() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(String collection, String resource, long version, byte[] json) {
+        long size = (long) json.length + resource.length() + ENTRY_OVERHEAD;
+        if (size > maxBytes || maxEntries < 1) {
+            return;
+        }
+        lock.lock();
+        try {
+            Long latest = latestVersions.get(collection);
+            // Параллельный запрос мог уже положить более свежую версию коллекции
+            if (latest != null && latest > version) {
+                return;
+            }
+            if (latest == null || latest < version) {
+                latestVersions.put(collection, version);
+                evictCollection(collection);
+            }
+            CachedBody previous = bodies.put(resource, new CachedBody(collection, version, json, size));
+            cachedBytes += size - (previous == null ? 0 : previous.size());
+            Iterator<CachedBody> eldest = bodies.values().iterator();
+            while ((cachedBytes > maxBytes || bodies.size() > maxEntries) && eldest.hasNext()) {
+                CachedBody evicted = eldest.next();
+                eldest.remove();
+                cachedBytes -= evicted.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Все закэшированные страницы коллекции старше новой версии и больше не понадобятся
+    private void evictCollection(String collection) {
+        Iterator<CachedBody> cached = bodies.values().iterator();
+        while (cached.hasNext()) {
+            CachedBody body = cached.next();
+            if (body.collection().equals(collection)) {
+                cached.remove();
+                cachedBytes -= body.size();
+            }
+        }
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String etag(long version) {
+        return "\"" + instance + "-" + version + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record CachedBody(String collection, long version, byte[] json, long size) {
+    }
+}
@@ -1,68 +1,217 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.BatchOutcome;
+import ru.yandex.practicum.filmorate.service.UserService;
 import ru.yandex.practicum.filmorate.validation.CreateValidationGroup;
 import ru.yandex.practicum.filmorate.validation.UpdateValidationGroup;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/users")
 @Slf4j
 @Validated
+@RequiredArgsConstructor
 public class UserController {
-    private final Map<Long, User> users = new HashMap<>();
+    private final UserService userService;
+    private final NdjsonWriter ndjsonWriter;
+    private final ResponseCache responseCache;
+    private final Validator validator;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final ValidationException LIMIT_OUT_OF_RANGE =
+            new ValidationException("Параметр limit должен быть от 1 до " + MAX_PAGE_SIZE);
+    private static final ValidationException BATCH_TOO_LARGE =
+            new ValidationException("Пакет не может содержать больше " + MAX_BATCH_SIZE + " элементов");
+    private static final ConditionsNotMetException MISSING_ID =
+            new ConditionsNotMetException("Не указан id пользователя");
 
     @GetMapping
-    public Collection<User> findAll() {
-        return users.values();
+    public ResponseEntity<StreamingResponseBody> getAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseCache.stream(userService.version(), ifNoneMatch, userService.findAll());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<byte[]> getPage(@RequestParam(defaultValue = "0") long after, @RequestParam int limit,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                          String ifNoneMatch) {
+        checkLimit(limit);
+        return responseCache.respond("/users", "?after=" + after + "&limit=" + limit, userService.version(),
+                ifNoneMatch, () -> userService.findAfter(after).stream().limit(limit).toList());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody stream(@RequestParam(defaultValue = "0") long after) {
+        return ndjsonWriter.write(userService.findAfter(after));
+    }
+
+    @GetMapping("/by-login/{login}")
+    public User findByLogin(@PathVariable String login) {
+        return userService.findByLogin(login)
+                .orElseThrow(() -> new NotFoundException("Пользователь с логином " + login + " не найден"));
     }
 
     @PostMapping
     public User add(@Validated({CreateValidationGroup.class}) @RequestBody User user) {
         checkName(user);
-        user.setId(getNextId());
-        users.put(user.getId(), user);
+        userService.add(user);
         log.info("Пользователь с id = {} успешно добавлен", user.getId());
         return user;
     }
 
+    public User update(User newUser) {
+        return update(newUser, null).getBody();
+    }
+
     @PutMapping
     @Validated(UpdateValidationGroup.class)
-    public User update(@Valid @RequestBody User newUser) {
+    public ResponseEntity<User> update(@Valid @RequestBody User newUser,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (newUser.getId() == null) {
-            throw new ConditionsNotMetException("Не указан id пользователя");
+            throw MISSING_ID;
         }
 
         checkName(newUser);
+        newUser.setVersion(EntityTag.expectedVersion(ifMatch, newUser.getVersion()));
+
+        User user = userService.update(newUser)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id=" + newUser.getId() + " не найден"));
+        log.info("Пользователь с id={} успешно обновлён", user.getId());
+        return ResponseEntity.ok().eTag(EntityTag.of(user.getVersion())).body(user);
+    }
+
+    @PutMapping("/{id}/friends/{friendId}")
+    public void addFriend(@PathVariable long id, @PathVariable long friendId) {
+        userService.addFriend(id, friendId);
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public void removeFriend(@PathVariable long id, @PathVariable long friendId) {
+        userService.removeFriend(id, friendId);
+    }
+
+    @GetMapping("/{id}/friends")
+    public List<User> findFriends(@PathVariable long id) {
+        return userService.findFriends(id);
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public List<User> findCommonFriends(@PathVariable long id, @PathVariable long otherId) {
+        return userService.findCommonFriends(id, otherId);
+    }
 
-        if (users.containsKey(newUser.getId())) {
-            User oldUser = users.get(newUser.getId());
-            oldUser.setEmail(newUser.getEmail());
-            oldUser.setLogin(newUser.getLogin());
-            oldUser.setName(newUser.getName());
-            oldUser.setBirthday(newUser.getBirthday());
-            log.info("Пользователь с id={} успешно обновлён", newUser.getId());
-            return oldUser;
+    @PostMapping("/batch")
+    public BatchResult<User> addAll(@RequestBody List<User> users) {
+        checkBatchSize(users.size());
+        List<BatchItemResult<User>> results = new ArrayList<>(users.size());
+        List<User> valid = new ArrayList<>(users.size());
+        List<Integer> validIndexes = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            List<String> errors = batchErrors(users.get(i), CreateValidationGroup.class);
+            if (errors.isEmpty()) {
+                checkName(users.get(i));
+                valid.add(users.get(i));
+                validIndexes.add(i);
+            } else {
+                results.add(BatchItemResult.failure(i, HttpStatus.BAD_REQUEST.value(), errors));
+            }
         }
-        throw new NotFoundException(String.format("Пользователь с id=%d не найден", newUser.getId()));
+
+        List<BatchOutcome<User>> added = userService.addAll(valid);
+        for (int i = 0; i < valid.size(); i++) {
+            results.add(batchItem(validIndexes.get(i), added.get(i), valid.get(i).getId()));
+        }
+        BatchResult<User> result = new BatchResult<>(results);
+        log.info("Пакетно добавлено пользователей: {} из {}", result.getSucceeded(), users.size());
+        return result;
+    }
+
+    @PutMapping("/batch")
+    public BatchResult<User> updateAll(@RequestBody List<User> newUsers) {
+        checkBatchSize(newUsers.size());
+        List<BatchItemResult<User>> results = new ArrayList<>(newUsers.size());
+        List<User> valid = new ArrayList<>(newUsers.size());
+        List<Integer> validIndexes = new ArrayList<>(newUsers.size());
+        for (int i = 0; i < newUsers.size(); i++) {
+            User newUser = newUsers.get(i);
+            List<String> errors = batchErrors(newUser, UpdateValidationGroup.class);
+            if (errors.isEmpty() && newUser.getId() == null) {
+                errors = List.of("Не указан id пользователя");
+            }
+            if (errors.isEmpty()) {
+                checkName(newUser);
+                valid.add(newUser);
+                validIndexes.add(i);
+            } else {
+                results.add(BatchItemResult.failure(i, HttpStatus.BAD_REQUEST.value(), errors));
+            }
+        }
+
+        List<BatchOutcome<User>> updated = userService.updateAll(valid);
+        for (int i = 0; i < valid.size(); i++) {
+            results.add(batchItem(validIndexes.get(i), updated.get(i), valid.get(i).getId()));
+        }
+        BatchResult<User> result = new BatchResult<>(results);
+        log.info("Пакетно обновлено пользователей: {} из {}", result.getSucceeded(), newUsers.size());
+        return result;
+    }
+
+    // Конфликт отвечает 409 только для своего элемента, остальные элементы пакета сохраняют свой итог
+    private static BatchItemResult<User> batchItem(int index, BatchOutcome<User> outcome, Long id) {
+        if (outcome.conflict() != null) {
+            return BatchItemResult.failure(index, HttpStatus.CONFLICT.value(),
+                    List.of(outcome.conflict().getMessage()));
+        }
+        if (outcome.entity() != null) {
+            return BatchItemResult.success(index, HttpStatus.OK.value(), outcome.entity());
+        }
+        return BatchItemResult.failure(index, HttpStatus.NOT_FOUND.value(),
+                List.of(String.format("Пользователь с id=%d не найден", id)));
+    }
+
+    private List<String> batchErrors(User user, Class<?> group) {
+        if (user == null) {
+            return List.of("Пустой элемент пакета");
+        }
+        List<String> errors = new ArrayList<>();
+        validator.validate(user, group).forEach(violation -> errors.add(violation.getMessage()));
+        return errors;
     }
 
-    private void checkName(User user) {
+    private void checkBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw BATCH_TOO_LARGE;
+        }
+    }
+
+    static void checkName(User user) {
         if (user.getName() == null || user.getName().isBlank()) {
             user.setName(user.getLogin());
         }
     }
 
-    private long getNextId() {
-        return users.keySet().stream().mapToLong(id -> id).max().orElse(0) + 1;
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw LIMIT_OUT_OF_RANGE;
+        }
     }
 }
\ No newline at end of file
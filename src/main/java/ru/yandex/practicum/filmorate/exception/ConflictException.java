@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(final String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,6 +1,10 @@
 package ru.yandex.practicum.filmorate.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -9,69 +13,123 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.validation.FieldError;
 
 import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.model.ErrorResponse;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
+    // Счётчики создаются заранее: поиск метра в реестре на каждую ошибку стоил бы аллокаций
+    private final Counter methodArgumentNotValid;
+    private final Counter constraintViolation;
+    private final Counter notFound;
+    private final Counter conditionsNotMet;
+    private final Counter validation;
+    private final Counter conflict;
+    // При потоке некорректных запросов журнал не должен стоить дороже самого отказа
+    private final WarnRateLimiter warnings;
+    // Время ответа об ошибке с точностью до секунды, пересчитывается раз в секунду
+    private volatile Timestamp timestamp = new Timestamp(-1, null);
+
+    public GlobalExceptionHandler(final MeterRegistry registry,
+                                  @Value("${filmorate.errors.log-limit:10}") final int logLimit,
+                                  @Value("${filmorate.errors.log-interval:1s}") final Duration logInterval) {
+        methodArgumentNotValid = errorCounter(registry, "methodArgumentNotValid", MethodArgumentNotValidException.class);
+        constraintViolation = errorCounter(registry, "constraintViolation", ConstraintViolationException.class);
+        notFound = errorCounter(registry, "notFound", NotFoundException.class);
+        conditionsNotMet = errorCounter(registry, "conditionsNotMet", ConditionsNotMetException.class);
+        validation = errorCounter(registry, "validation", ValidationException.class);
+        conflict = errorCounter(registry, "conflict", ConflictException.class);
+        warnings = new WarnRateLimiter(logLimit, logInterval);
+    }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-
-        List<String> errors = ex.getBindingResult()
-                .getFieldErrors()
-                .stream()
-                .map(FieldError::getDefaultMessage)
-                .collect(Collectors.toList());
-
-        body.put("errorMessages", errors);
-        log.warn("Ошибки валидации: {}", errors);
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<ErrorResponse> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
+        methodArgumentNotValid.increment();
+        List<FieldError> fieldErrors = ex.getBindingResult().getFieldErrors();
+        List<String> errors = new ArrayList<>(fieldErrors.size());
+        for (FieldError fieldError : fieldErrors) {
+            errors.add(fieldError.getDefaultMessage());
+        }
+
+        warn("Ошибки валидации: {}", errors);
+        return respond(HttpStatus.BAD_REQUEST, null, errors);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
-    public ResponseEntity<Map<String, Object>> handleConstraintViolation(ConstraintViolationException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-
-        List<String> errors = ex.getConstraintViolations()
-                .stream()
-                .map(v -> v.getMessage())
-                .collect(Collectors.toList());
-
-        body.put("errorMessages", errors);
-        log.warn("Ошибки валидации: {}", errors);
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<ErrorResponse> handleConstraintViolation(ConstraintViolationException ex) {
+        constraintViolation.increment();
+        Set<ConstraintViolation<?>> violations = ex.getConstraintViolations();
+        List<String> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<?> violation : violations) {
+            errors.add(violation.getMessage());
+        }
+
+        warn("Ошибки валидации: {}", errors);
+        return respond(HttpStatus.BAD_REQUEST, null, errors);
     }
 
     @ExceptionHandler({NotFoundException.class, ConditionsNotMetException.class})
-    public ResponseEntity<Map<String, Object>> handleNotFoundException(RuntimeException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.NOT_FOUND.value());
-        body.put("error", ex.getMessage());
-
-        log.warn(ex.getMessage());
-        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+    public ResponseEntity<ErrorResponse> handleNotFoundException(RuntimeException ex) {
+        (ex instanceof NotFoundException ? notFound : conditionsNotMet).increment();
+        warn("{}", ex.getMessage());
+        return respond(HttpStatus.NOT_FOUND, ex.getMessage(), null);
     }
 
     @ExceptionHandler(ValidationException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationException(ValidationException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", ex.getMessage());
-
-        log.warn(ex.getMessage());
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<ErrorResponse> handleValidationException(ValidationException ex) {
+        validation.increment();
+        warn("{}", ex.getMessage());
+        return respond(HttpStatus.BAD_REQUEST, ex.getMessage(), null);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflictException(ConflictException ex) {
+        conflict.increment();
+        warn("{}", ex.getMessage());
+        return respond(HttpStatus.CONFLICT, ex.getMessage(), null);
+    }
+
+    private ResponseEntity<ErrorResponse> respond(HttpStatus status, String error, List<String> errorMessages) {
+        return new ResponseEntity<>(new ErrorResponse(now(), status.value(), error, errorMessages), status);
+    }
+
+    private void warn(String format, Object argument) {
+        if (!log.isWarnEnabled() || !warnings.tryAcquire()) {
+            return;
+        }
+        long suppressed = warnings.drainSuppressed();
+        if (suppressed > 0) {
+            log.warn("Пропущено однотипных предупреждений: {}", suppressed);
+        }
+        log.warn(format, argument);
+    }
+
+    private LocalDateTime now() {
+        long second = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.second() != second) {
+            current = new Timestamp(second, LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault()));
+            timestamp = current;
+        }
+        return current.value();
+    }
+
+    private static Counter errorCounter(MeterRegistry registry, String handler, Class<? extends Exception> type) {
+        return Counter.builder("filmorate.errors")
+                .description("Ошибки, обработанные GlobalExceptionHandler")
+                .tag("handler", handler)
+                .tag("exception", type.getSimpleName())
+                .register(registry);
+    }
+
+    private record Timestamp(long second, LocalDateTime value) {
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,6 @@ package ru.yandex.practicum.filmorate.exception;
 
 public class NotFoundException extends RuntimeException {
     public NotFoundException(final String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
@@ -4,13 +4,16 @@ import lombok.Getter;
 
 import java.util.List;
 
+// Все исключения предметной области без стека: это ожидаемый отказ клиенту, а не сбой,
+// и заполнение стека — самая дорогая часть создания исключения. Без изменяемого состояния
+// их экземпляры с постоянным сообщением можно создавать один раз и бросать повторно
 @Getter
 public class ValidationException extends RuntimeException {
 
     private final List<String> errors;
 
     public ValidationException(final String message) {
-        super(message);
+        super(message, null, false, false);
         this.errors = List.of(message);
     }
 }
\ No newline at end of file
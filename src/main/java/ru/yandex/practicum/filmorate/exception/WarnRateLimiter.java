@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.exception;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Пропускает в журнал не больше limit предупреждений за интервал, остальные только считает.
+// Границы интервала сдвигаются без блокировок; на стыке интервалов лимит может быть
+// превышен на несколько сообщений, для журнала это не важно
+class WarnRateLimiter {
+    private final int limit;
+    private final long intervalNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger inWindow = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    WarnRateLimiter(int limit, Duration interval) {
+        this.limit = limit;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            inWindow.set(0);
+        }
+        if (inWindow.incrementAndGet() <= limit) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    // Сколько сообщений отброшено с прошлого вызова
+    long drainSuppressed() {
+        return suppressed.get() == 0 ? 0 : suppressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.ResponseCache;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.IdSequence;
+import ru.yandex.practicum.filmorate.storage.StorageRecovery;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+// Метрики состояния хранилищ. Значения снимаются только в момент опроса /actuator/prometheus,
+// поэтому на пути запроса ничего не считается дополнительно
+@Component
+@RequiredArgsConstructor
+public class FilmorateMetrics implements MeterBinder {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final IdGenerator idGenerator;
+    private final ResponseCache responseCache;
+    private final ChangeEventBuffer changeEvents;
+    private final StorageRecovery storageRecovery;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.storage.size", filmStorage, FilmStorage::count)
+                .description("Число фильмов в хранилище")
+                .tag("entity", "films")
+                .register(registry);
+        Gauge.builder("filmorate.storage.size", userStorage, UserStorage::count)
+                .description("Число пользователей в хранилище")
+                .tag("entity", "users")
+                .register(registry);
+
+        // Выданные id, включая блоки пакетной загрузки и id, отброшенные неудачными вставками
+        FunctionCounter.builder("filmorate.ids.allocated", idGenerator.films(), IdSequence::current)
+                .description("Выдано id фильмов")
+                .tag("entity", "films")
+                .register(registry);
+        FunctionCounter.builder("filmorate.ids.allocated", idGenerator.users(), IdSequence::current)
+                .description("Выдано id пользователей")
+                .tag("entity", "users")
+                .register(registry);
+
+        Gauge.builder("filmorate.cache.size", responseCache, ResponseCache::cachedBytes)
+                .description("Объём сериализованных ответов в кэше")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("filmorate.cache.entries", responseCache, ResponseCache::cachedEntries)
+                .description("Число ответов в кэше")
+                .register(registry);
+
+        FunctionCounter.builder("filmorate.events.published", changeEvents, ChangeEventBuffer::lastSequence)
+                .description("Опубликовано событий об изменениях")
+                .register(registry);
+
+        TimeGauge.builder("filmorate.recovery.time", storageRecovery, TimeUnit.MILLISECONDS,
+                        recovery -> recovery.getRecoveryTime().toMillis())
+                .description("Время восстановления хранилищ при старте")
+                .register(registry);
+    }
+}
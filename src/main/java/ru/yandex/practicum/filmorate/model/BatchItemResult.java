@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult<T> {
+    int index;
+    int status;
+    T entity;
+    List<String> errors;
+
+    public static <T> BatchItemResult<T> success(int index, int status, T entity) {
+        return new BatchItemResult<>(index, status, entity, null);
+    }
+
+    public static <T> BatchItemResult<T> failure(int index, int status, List<String> errors) {
+        return new BatchItemResult<>(index, status, null, errors);
+    }
+}
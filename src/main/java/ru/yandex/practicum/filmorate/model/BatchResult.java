@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Comparator;
+import java.util.List;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BatchResult<T> {
+    int succeeded;
+    int failed;
+    List<BatchItemResult<T>> items;
+
+    public BatchResult(List<BatchItemResult<T>> items) {
+        this.items = items.stream()
+                .sorted(Comparator.comparingInt(BatchItemResult::getIndex))
+                .toList();
+        this.succeeded = (int) items.stream().filter(item -> item.getErrors() == null).count();
+        this.failed = items.size() - succeeded;
+    }
+}
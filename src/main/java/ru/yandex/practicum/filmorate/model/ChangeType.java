@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.model;
+
+public enum ChangeType {
+    FILM_CREATED,
+    FILM_UPDATED,
+    USER_CREATED,
+    USER_UPDATED
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Тело ответа об ошибке: сериализуется напрямую, без промежуточной Map.
+// Заполнено либо error, либо errorMessages
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ErrorResponse {
+    LocalDateTime timestamp;
+    int status;
+    String error;
+    List<String> errorMessages;
+}
@@ -14,7 +14,7 @@ import java.time.LocalDate;
 
 @Data
 @EqualsAndHashCode(of = {"id"})
-@Builder
+@Builder(toBuilder = true)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Film {
 
@@ -35,4 +35,7 @@ public class Film {
 
     @Positive(message = "Продолжительность фильма должна быть более 1 минуты")
     Integer duration;
+
+    // Растёт с каждым изменением; в обновлении — ожидаемая клиентом текущая версия
+    Long version;
 }
\ No newline at end of file
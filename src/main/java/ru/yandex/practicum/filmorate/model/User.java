@@ -9,7 +9,7 @@ import ru.yandex.practicum.filmorate.validation.UpdateValidationGroup;
 import java.time.LocalDate;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -35,6 +35,9 @@ public class User {
             message = "Дата рождения не может быть в будущем")
     LocalDate birthday;
 
+    // Растёт с каждым изменением; в обновлении — ожидаемая клиентом текущая версия
+    Long version;
+
     public String getName() {
         return name == null || name.isBlank() ? login : name;
     }
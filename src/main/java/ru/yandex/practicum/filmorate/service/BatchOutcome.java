@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+
+// Итог одного элемента пакетной операции: записанная сущность, отсутствие сущности или конфликт
+// (занятый email или логин, устаревшая версия). Конфликт одного элемента не отменяет остальные
+public record BatchOutcome<T>(T entity, ConflictException conflict) {
+    public static <T> BatchOutcome<T> applied(T entity) {
+        return new BatchOutcome<>(entity, null);
+    }
+
+    public static <T> BatchOutcome<T> notFound() {
+        return new BatchOutcome<>(null, null);
+    }
+
+    public static <T> BatchOutcome<T> conflict(ConflictException conflict) {
+        return new BatchOutcome<>(null, conflict);
+    }
+}
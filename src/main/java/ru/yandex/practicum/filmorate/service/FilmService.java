@@ -0,0 +1,290 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.ChangeType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSearchQuery;
+import ru.yandex.practicum.filmorate.storage.EntityCodec;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.StripedLocks;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmTextIndex;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+import ru.yandex.practicum.filmorate.storage.wal.WalRecordType;
+import ru.yandex.practicum.filmorate.storage.wal.WriteAheadLog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+@Service
+@RequiredArgsConstructor
+public class FilmService {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final IdGenerator idGenerator;
+    private final WriteAheadLog writeAheadLog;
+    private final ChangeEventBuffer changeEvents;
+    private final List<FilmIndex> filmIndexes;
+    private final FilmRangeIndex filmRangeIndex;
+    private final FilmTextIndex filmTextIndex;
+    private final StripedLocks locks = new StripedLocks(64);
+    // Порядок записей журнала важен только для одной пары (фильм, пользователь), поэтому лайки
+    // популярного фильма расходятся по разным блокировкам и не ждут ни друг друга, ни обновлений фильмов
+    private final StripedLocks likeLocks = new StripedLocks(256);
+    // Растёт при каждом изменении фильмов; по нему кэш ответов понимает, что коллекция поменялась
+    private final AtomicLong version = new AtomicLong();
+
+    public long version() {
+        return version.get();
+    }
+
+    public Collection<Film> findAll() {
+        return filmStorage.findAll();
+    }
+
+    public Collection<Film> findAfter(long afterId) {
+        return filmStorage.findAfter(afterId);
+    }
+
+    public List<Film> search(FilmSearchQuery query) {
+        List<Long> ids = query.hasText()
+                ? filmTextIndex.search(query.getText(), query.getLimit(), id -> filmRangeIndex.matches(id, query))
+                : filmRangeIndex.search(query);
+        return filmStorage.findByIds(ids);
+    }
+
+    // Изменение сначала сбрасывается в журнал и только затем попадает в хранилище, индексы и события:
+    // читатели и кэш ответов не видят того, что может не пережить сбой, а при ошибке журнала
+    // клиент получает ошибку, и состояние не меняется. От записи до применения держится блокировка
+    // применения журнала: контрольная точка снимка ждёт, пока записанное изменение попадёт в хранилище
+    public Film add(Film film) {
+        film.setId(idGenerator.films().next());
+        film.setVersion(EntityVersions.INITIAL);
+        Lock applying = writeAheadLog.applyLock();
+        applying.lock();
+        try {
+            writeAheadLog.append(WalRecordType.FILM_CREATED, EntityCodec.encodeFilm(film)).join();
+            filmStorage.add(film);
+        } finally {
+            applying.unlock();
+        }
+        version.incrementAndGet();
+        index(film);
+        changeEvents.publish(ChangeType.FILM_CREATED, film.getId(), film);
+        return film;
+    }
+
+    // Версию проверяет сервис до записи в журнал; хранилище применяет уже записанное изменение
+    public Optional<Film> update(Film newFilm) {
+        // Журнал и применение для одного фильма идут под его блокировкой, поэтому порядок записей
+        // в журнале и событий совпадает с порядком применения
+        Lock lock = locks.forId(newFilm.getId());
+        lock.lock();
+        try {
+            Optional<Film> current = filmStorage.findById(newFilm.getId());
+            if (current.isEmpty()) {
+                return current;
+            }
+            Film next = nextVersion(newFilm, current.get());
+            Optional<Film> film;
+            Lock applying = writeAheadLog.applyLock();
+            applying.lock();
+            try {
+                writeAheadLog.append(WalRecordType.FILM_UPDATED, EntityCodec.encodeFilm(next)).join();
+                film = filmStorage.update(expectingVersion(newFilm, current.get()));
+            } finally {
+                applying.unlock();
+            }
+            film.ifPresent(this::published);
+            return film;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Film> addAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        long id = idGenerator.films().nextBlock(films.size()).first();
+        Lock applying = writeAheadLog.applyLock();
+        applying.lock();
+        try {
+            List<CompletableFuture<Void>> written = new ArrayList<>(films.size());
+            for (Film film : films) {
+                film.setId(id++);
+                film.setVersion(EntityVersions.INITIAL);
+                written.add(writeAheadLog.append(WalRecordType.FILM_CREATED, EntityCodec.encodeFilm(film)));
+            }
+            CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).join();
+            filmStorage.addAll(films);
+        } finally {
+            applying.unlock();
+        }
+        version.incrementAndGet();
+        for (Film film : films) {
+            index(film);
+            changeEvents.publish(ChangeType.FILM_CREATED, film.getId(), film);
+        }
+        return films;
+    }
+
+    // Элемент с устаревшей версией получает конфликт до записи в журнал, остальные применяются:
+    // все записи этих сущностей идут под теми же блокировками, поэтому проверка не устареет
+    public List<BatchOutcome<Film>> updateAll(List<Film> newFilms) {
+        List<Lock> batchLocks = locks.forIds(newFilms.stream().map(Film::getId).toList());
+        batchLocks.forEach(Lock::lock);
+        try {
+            List<BatchOutcome<Film>> outcomes = new ArrayList<>(Collections.nCopies(newFilms.size(), null));
+            List<Integer> positions = new ArrayList<>(newFilms.size());
+            List<Film> applied = new ArrayList<>(newFilms.size());
+            List<Film> logged = new ArrayList<>(newFilms.size());
+            // Один фильм может встретиться в пакете дважды: второе изменение идёт поверх первого
+            Map<Long, Film> latest = new HashMap<>();
+            for (int i = 0; i < newFilms.size(); i++) {
+                Film newFilm = newFilms.get(i);
+                Film current = latest.containsKey(newFilm.getId())
+                        ? latest.get(newFilm.getId())
+                        : filmStorage.findById(newFilm.getId()).orElse(null);
+                if (current == null) {
+                    outcomes.set(i, BatchOutcome.notFound());
+                    continue;
+                }
+                Film next;
+                try {
+                    next = nextVersion(newFilm, current);
+                } catch (ConflictException e) {
+                    outcomes.set(i, BatchOutcome.conflict(e));
+                    continue;
+                }
+                positions.add(i);
+                applied.add(expectingVersion(newFilm, current));
+                logged.add(next);
+                latest.put(next.getId(), next);
+            }
+            List<Optional<Film>> films;
+            Lock applying = writeAheadLog.applyLock();
+            applying.lock();
+            try {
+                List<CompletableFuture<Void>> written = new ArrayList<>(logged.size());
+                for (Film film : logged) {
+                    written.add(writeAheadLog.append(WalRecordType.FILM_UPDATED, EntityCodec.encodeFilm(film)));
+                }
+                CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).join();
+                films = applied.isEmpty() ? List.of() : filmStorage.updateAll(applied);
+            } finally {
+                applying.unlock();
+            }
+            for (int i = 0; i < positions.size(); i++) {
+                films.get(i).ifPresent(this::published);
+                outcomes.set(positions.get(i),
+                        films.get(i).map(BatchOutcome::applied).orElseGet(BatchOutcome::notFound));
+            }
+            return outcomes;
+        } finally {
+            batchLocks.forEach(Lock::unlock);
+        }
+    }
+
+    public void addLike(long filmId, long userId) {
+        changeLike(filmId, userId, true);
+    }
+
+    public void removeLike(long filmId, long userId) {
+        changeLike(filmId, userId, false);
+    }
+
+    public List<Film> findPopular(int count) {
+        List<Long> popularIds = likeStorage.findPopularIds(count);
+        List<Film> popular = new ArrayList<>(count);
+        popular.addAll(filmStorage.findByIds(popularIds));
+        Set<Long> liked = new HashSet<>(popularIds);
+        // Фильмов с лайками меньше, чем запрошено: добираем фильмами без лайков по порядку id
+        if (popular.size() < count) {
+            for (Film film : filmStorage.findAll()) {
+                if (popular.size() == count) {
+                    break;
+                }
+                if (!liked.contains(film.getId())) {
+                    popular.add(film);
+                }
+            }
+        }
+        return popular;
+    }
+
+    private void changeLike(long filmId, long userId, boolean add) {
+        if (filmStorage.findById(filmId).isEmpty()) {
+            throw new NotFoundException("Фильм с id = " + filmId + " не найден");
+        }
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+        Lock lock = likeLocks.forPair(filmId, userId);
+        lock.lock();
+        try {
+            // Запись в журнал нужна только для настоящего изменения
+            if (likeStorage.hasLike(filmId, userId) == add) {
+                return;
+            }
+            Lock applying = writeAheadLog.applyLock();
+            applying.lock();
+            try {
+                writeAheadLog.append(add ? WalRecordType.LIKE_ADDED : WalRecordType.LIKE_REMOVED,
+                        EntityCodec.encodeIdPair(filmId, userId)).join();
+                if (add) {
+                    likeStorage.addLike(filmId, userId);
+                } else {
+                    likeStorage.removeLike(filmId, userId);
+                }
+            } finally {
+                applying.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Копия с версией, которую назначит хранилище; конфликт версий обнаруживается до записи в журнал
+    private static Film nextVersion(Film newFilm, Film current) {
+        return newFilm.toBuilder()
+                .version(EntityVersions.next("Фильм", current.getId(), current.getVersion(), newFilm.getVersion()))
+                .build();
+    }
+
+    // Под блокировкой фильма версия не изменится, поэтому хранилище назначит ту же, что записана в журнал
+    private static Film expectingVersion(Film newFilm, Film current) {
+        return newFilm.toBuilder().version(current.getVersion()).build();
+    }
+
+    private void published(Film film) {
+        version.incrementAndGet();
+        index(film);
+        changeEvents.publish(ChangeType.FILM_UPDATED, film.getId(), film);
+    }
+
+    private void index(Film film) {
+        for (FilmIndex filmIndex : filmIndexes) {
+            filmIndex.index(film);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.Film;
+
+// Реактивный фасад над FilmService. Обход хранилища — синхронная работа, которая на больших
+// коллекциях занимает поток надолго, а запись ждёт подтверждения журнала. Поэтому и чтение,
+// и запись выполняются на boundedElastic и не занимают поток event loop.
+@Service
+@RequiredArgsConstructor
+public class ReactiveFilmService {
+    private final FilmService filmService;
+
+    public Flux<Film> findAfter(long afterId) {
+        return Flux.defer(() -> Flux.fromIterable(filmService.findAfter(afterId)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Film> add(Film film) {
+        return Mono.fromCallable(() -> filmService.add(film))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Film> update(Film newFilm) {
+        return Mono.fromCallable(() -> filmService.update(newFilm))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty);
+    }
+}
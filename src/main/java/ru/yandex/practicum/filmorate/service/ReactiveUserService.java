@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.User;
+
+// Реактивный фасад над UserService. Обход хранилища — синхронная работа, которая на больших
+// коллекциях занимает поток надолго, а запись ждёт подтверждения журнала. Поэтому и чтение,
+// и запись выполняются на boundedElastic и не занимают поток event loop.
+@Service
+@RequiredArgsConstructor
+public class ReactiveUserService {
+    private final UserService userService;
+
+    public Flux<User> findAfter(long afterId) {
+        return Flux.defer(() -> Flux.fromIterable(userService.findAfter(afterId)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<User> add(User user) {
+        return Mono.fromCallable(() -> userService.add(user))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<User> update(User newUser) {
+        return Mono.fromCallable(() -> userService.update(newUser))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty);
+    }
+}
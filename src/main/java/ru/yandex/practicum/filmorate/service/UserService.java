@@ -0,0 +1,379 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ChangeType;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EntityCodec;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.StripedLocks;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+import ru.yandex.practicum.filmorate.storage.index.UserUniqueIndex;
+import ru.yandex.practicum.filmorate.storage.wal.WalRecordType;
+import ru.yandex.practicum.filmorate.storage.wal.WriteAheadLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserService {
+    private static final ValidationException SELF_FRIENDSHIP =
+            new ValidationException("Нельзя добавить в друзья самого себя");
+    private final UserStorage userStorage;
+    private final FriendStorage friendStorage;
+    private final IdGenerator idGenerator;
+    private final WriteAheadLog writeAheadLog;
+    private final ChangeEventBuffer changeEvents;
+    private final UserUniqueIndex uniqueIndex;
+    private final StripedLocks locks = new StripedLocks(64);
+    // Растёт при каждом изменении пользователей; по нему кэш ответов понимает, что коллекция поменялась
+    private final AtomicLong version = new AtomicLong();
+
+    public long version() {
+        return version.get();
+    }
+
+    public Collection<User> findAll() {
+        return userStorage.findAll();
+    }
+
+    public Collection<User> findAfter(long afterId) {
+        return userStorage.findAfter(afterId);
+    }
+
+    public Optional<User> findByLogin(String login) {
+        OptionalLong id = uniqueIndex.findByLogin(login);
+        return id.isPresent() ? userStorage.findById(id.getAsLong()) : Optional.empty();
+    }
+
+    // Email и логин занимаются в индексе до записи в хранилище, поэтому дубликат отклоняется без обхода.
+    // Изменение сначала сбрасывается в журнал и только затем попадает в хранилище и события:
+    // при ошибке журнала клиент получает ошибку, а ключи индекса освобождаются.
+    // Как и в FilmService, от записи до применения держится блокировка применения журнала
+    public User add(User user) {
+        long reservation = uniqueIndex.reserve();
+        uniqueIndex.claim(reservation, user);
+        Lock applying = writeAheadLog.applyLock();
+        applying.lock();
+        try {
+            user.setId(idGenerator.users().next());
+            user.setVersion(EntityVersions.INITIAL);
+            writeAheadLog.append(WalRecordType.USER_CREATED, EntityCodec.encodeUser(user)).join();
+            userStorage.add(user);
+        } catch (RuntimeException e) {
+            uniqueIndex.release(reservation, user, null);
+            throw e;
+        } finally {
+            applying.unlock();
+        }
+        uniqueIndex.bind(reservation, user);
+        version.incrementAndGet();
+        changeEvents.publish(ChangeType.USER_CREATED, user.getId(), user);
+        return user;
+    }
+
+    // Версию проверяет сервис до записи в журнал; хранилище применяет уже записанное изменение
+    public Optional<User> update(User newUser) {
+        // Журнал и применение для одного пользователя идут под его блокировкой, поэтому порядок
+        // записей в журнале и событий совпадает с порядком применения
+        Lock lock = locks.forId(newUser.getId());
+        lock.lock();
+        try {
+            Optional<User> current = userStorage.findById(newUser.getId());
+            if (current.isEmpty()) {
+                return current;
+            }
+            Optional<User> user = updateIndexed(newUser, current.get());
+            user.ifPresent(this::published);
+            return user;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ключи занимаются поэлементно: пользователь с занятым email или логином получает конфликт,
+    // остальные элементы пакета добавляются
+    public List<BatchOutcome<User>> addAll(List<User> users) {
+        List<BatchOutcome<User>> outcomes = new ArrayList<>(users.size());
+        List<User> accepted = new ArrayList<>(users.size());
+        long[] reservations = new long[users.size()];
+        for (User user : users) {
+            long reservation = uniqueIndex.reserve();
+            try {
+                uniqueIndex.claim(reservation, user);
+            } catch (ConflictException e) {
+                outcomes.add(BatchOutcome.conflict(e));
+                continue;
+            }
+            reservations[accepted.size()] = reservation;
+            accepted.add(user);
+            outcomes.add(BatchOutcome.applied(user));
+        }
+        if (accepted.isEmpty()) {
+            return outcomes;
+        }
+        Lock applying = writeAheadLog.applyLock();
+        applying.lock();
+        try {
+            long id = idGenerator.users().nextBlock(accepted.size()).first();
+            List<CompletableFuture<Void>> written = new ArrayList<>(accepted.size());
+            for (User user : accepted) {
+                user.setId(id++);
+                user.setVersion(EntityVersions.INITIAL);
+                written.add(writeAheadLog.append(WalRecordType.USER_CREATED, EntityCodec.encodeUser(user)));
+            }
+            CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).join();
+            userStorage.addAll(accepted);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < accepted.size(); i++) {
+                uniqueIndex.release(reservations[i], accepted.get(i), null);
+            }
+            throw e;
+        } finally {
+            applying.unlock();
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            uniqueIndex.bind(reservations[i], accepted.get(i));
+        }
+        version.incrementAndGet();
+        for (User user : accepted) {
+            changeEvents.publish(ChangeType.USER_CREATED, user.getId(), user);
+        }
+        return outcomes;
+    }
+
+    // Элемент с устаревшей версией или занятыми ключами получает конфликт до записи в журнал,
+    // остальные применяются: все записи этих сущностей идут под теми же блокировками, поэтому проверка не устареет
+    public List<BatchOutcome<User>> updateAll(List<User> newUsers) {
+        List<Lock> batchLocks = locks.forIds(newUsers.stream().map(User::getId).toList());
+        batchLocks.forEach(Lock::lock);
+        try {
+            List<BatchOutcome<User>> outcomes = updateAllIndexed(newUsers);
+            for (BatchOutcome<User> outcome : outcomes) {
+                if (outcome.entity() != null) {
+                    published(outcome.entity());
+                }
+            }
+            return outcomes;
+        } finally {
+            batchLocks.forEach(Lock::unlock);
+        }
+    }
+
+    public void addFriend(long userId, long friendId) {
+        changeFriendship(userId, friendId, true);
+    }
+
+    public void removeFriend(long userId, long friendId) {
+        changeFriendship(userId, friendId, false);
+    }
+
+    public List<User> findFriends(long userId) {
+        getUser(userId);
+        return toUsers(friendStorage.findFriendIds(userId));
+    }
+
+    public List<User> findCommonFriends(long userId, long otherId) {
+        getUser(userId);
+        getUser(otherId);
+        return toUsers(friendStorage.findCommonFriendIds(userId, otherId));
+    }
+
+    // Дружба взаимна: обе стороны меняются под блокировками обоих пользователей,
+    // чтобы параллельные добавление и удаление не оставили связь только с одной стороны
+    private void changeFriendship(long userId, long friendId, boolean add) {
+        if (userId == friendId) {
+            throw SELF_FRIENDSHIP;
+        }
+        getUser(userId);
+        getUser(friendId);
+        List<Lock> pairLocks = locks.forIds(List.of(userId, friendId));
+        pairLocks.forEach(Lock::lock);
+        try {
+            // Запись в журнал нужна только для настоящего изменения хотя бы одной стороны
+            boolean changed = add
+                    ? !friendStorage.isFriend(userId, friendId) || !friendStorage.isFriend(friendId, userId)
+                    : friendStorage.isFriend(userId, friendId) || friendStorage.isFriend(friendId, userId);
+            if (!changed) {
+                return;
+            }
+            Lock applying = writeAheadLog.applyLock();
+            applying.lock();
+            try {
+                writeAheadLog.append(add ? WalRecordType.FRIENDSHIP_ADDED : WalRecordType.FRIENDSHIP_REMOVED,
+                        EntityCodec.encodeIdPair(userId, friendId)).join();
+                if (add) {
+                    friendStorage.addFriend(userId, friendId);
+                    friendStorage.addFriend(friendId, userId);
+                } else {
+                    friendStorage.removeFriend(userId, friendId);
+                    friendStorage.removeFriend(friendId, userId);
+                }
+            } finally {
+                applying.unlock();
+            }
+        } finally {
+            pairLocks.forEach(Lock::unlock);
+        }
+        log.info("Пользователи {} и {}: дружба {}", userId, friendId, add ? "добавлена" : "удалена");
+    }
+
+    // Вызывается под блокировкой пользователя: его email и логин в индексе меняет только этот поток
+    private Optional<User> updateIndexed(User newUser, User current) {
+        User next = nextVersion(newUser, current);
+        uniqueIndex.claim(current.getId(), newUser);
+        Optional<User> user;
+        Lock applying = writeAheadLog.applyLock();
+        applying.lock();
+        try {
+            writeAheadLog.append(WalRecordType.USER_UPDATED, EntityCodec.encodeUser(next)).join();
+            user = userStorage.update(expectingVersion(newUser, current));
+        } catch (RuntimeException e) {
+            uniqueIndex.release(current.getId(), newUser, current);
+            throw e;
+        } finally {
+            applying.unlock();
+        }
+        release(current, newUser, user.isPresent());
+        return user;
+    }
+
+    // Версия и ключи каждого элемента проверяются до того, как что-то записано в журнал
+    private List<BatchOutcome<User>> updateAllIndexed(List<User> newUsers) {
+        List<BatchOutcome<User>> outcomes = new ArrayList<>(Collections.nCopies(newUsers.size(), null));
+        // Позиции принятых элементов в пакете
+        List<Integer> positions = new ArrayList<>(newUsers.size());
+        // Состояние каждого пользователя до пакета и значения, для которых заняты его ключи
+        Map<Long, User> originals = new HashMap<>();
+        Map<Long, List<User>> claimed = new HashMap<>();
+        List<User> applied = new ArrayList<>(newUsers.size());
+        List<User> logged = new ArrayList<>(newUsers.size());
+        // Один пользователь может встретиться в пакете дважды: второе изменение идёт поверх первого
+        Map<Long, User> latest = new HashMap<>();
+        List<Optional<User>> users;
+        try {
+            for (int i = 0; i < newUsers.size(); i++) {
+                User newUser = newUsers.get(i);
+                User current = latest.containsKey(newUser.getId())
+                        ? latest.get(newUser.getId())
+                        : userStorage.findById(newUser.getId()).orElse(null);
+                if (current == null) {
+                    outcomes.set(i, BatchOutcome.notFound());
+                    continue;
+                }
+                User next;
+                try {
+                    next = nextVersion(newUser, current);
+                    uniqueIndex.claim(current.getId(), newUser);
+                } catch (ConflictException e) {
+                    outcomes.set(i, BatchOutcome.conflict(e));
+                    continue;
+                }
+                positions.add(i);
+                originals.putIfAbsent(current.getId(), current);
+                claimed.computeIfAbsent(current.getId(), id -> new ArrayList<>()).add(newUser);
+                applied.add(expectingVersion(newUser, current));
+                logged.add(next);
+                latest.put(next.getId(), next);
+            }
+            Lock applying = writeAheadLog.applyLock();
+            applying.lock();
+            try {
+                List<CompletableFuture<Void>> written = new ArrayList<>(logged.size());
+                for (User user : logged) {
+                    written.add(writeAheadLog.append(WalRecordType.USER_UPDATED, EntityCodec.encodeUser(user)));
+                }
+                CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).join();
+                users = applied.isEmpty() ? List.of() : userStorage.updateAll(applied);
+            } finally {
+                applying.unlock();
+            }
+        } catch (RuntimeException e) {
+            releaseBatch(originals, claimed, Map.of());
+            throw e;
+        }
+        Map<Long, User> finals = new HashMap<>();
+        for (int i = 0; i < positions.size(); i++) {
+            User newUser = newUsers.get(positions.get(i));
+            if (users.get(i).isPresent()) {
+                finals.put(newUser.getId(), newUser);
+            }
+            outcomes.set(positions.get(i), users.get(i).map(BatchOutcome::applied).orElseGet(BatchOutcome::notFound));
+        }
+        releaseBatch(originals, claimed, finals);
+        return outcomes;
+    }
+
+    // Ключи освобождаются один раз на пользователя: всё, что было у него до пакета или занято по ходу,
+    // кроме значений итогового состояния (при ошибке — исходного). Разница, посчитанная поэлементно,
+    // освободила бы ключ, к которому пакет вернулся: логин X → Y → X
+    private void releaseBatch(Map<Long, User> originals, Map<Long, List<User>> claimed, Map<Long, User> finals) {
+        for (Map.Entry<Long, User> original : originals.entrySet()) {
+            long id = original.getKey();
+            User kept = finals.getOrDefault(id, original.getValue());
+            if (kept != original.getValue()) {
+                uniqueIndex.release(id, original.getValue(), kept);
+            }
+            for (User user : claimed.get(id)) {
+                if (user != kept) {
+                    uniqueIndex.release(id, user, kept);
+                }
+            }
+        }
+    }
+
+    // Копия с версией, которую назначит хранилище; конфликт версий обнаруживается до записи в журнал
+    private static User nextVersion(User newUser, User current) {
+        return newUser.toBuilder()
+                .version(EntityVersions.next("Пользователь", current.getId(), current.getVersion(),
+                        newUser.getVersion()))
+                .build();
+    }
+
+    // Под блокировкой пользователя версия не изменится, поэтому хранилище назначит ту же, что записана в журнал
+    private static User expectingVersion(User newUser, User current) {
+        return newUser.toBuilder().version(current.getVersion()).build();
+    }
+
+    private void published(User user) {
+        version.incrementAndGet();
+        changeEvents.publish(ChangeType.USER_UPDATED, user.getId(), user);
+    }
+
+    // После успешного обновления освобождаются прежние ключи, иначе — занятые для нового значения
+    private void release(User current, User newUser, boolean updated) {
+        if (updated) {
+            uniqueIndex.release(current.getId(), current, newUser);
+        } else {
+            uniqueIndex.release(current.getId(), newUser, current);
+        }
+    }
+
+    private User getUser(long userId) {
+        return userStorage.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+    }
+
+    private List<User> toUsers(long[] ids) {
+        return userStorage.findByIds(Arrays.stream(ids).boxed().toList());
+    }
+}
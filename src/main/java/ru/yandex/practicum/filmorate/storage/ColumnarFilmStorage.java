@@ -0,0 +1,337 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Компактное хранилище для больших каталогов: поля фильмов лежат в примитивных
+// массивах-колонках, строки закодированы словарём, объекты Film создаются только при чтении.
+// Строки хранятся в порядке возрастания id. Заранее выданные id могут прийти не по порядку,
+// тогда строка вставляется на своё место со сдвигом хвоста, поэтому итератор помнит id, а не номер строки.
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.films", havingValue = "columnar")
+@RequiredArgsConstructor
+public class ColumnarFilmStorage implements FilmStorage {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NULL_DURATION = Integer.MIN_VALUE;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private final IdGenerator idGenerator;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StringDictionary names = new StringDictionary();
+    private final StringDictionary descriptions = new StringDictionary();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private long[] releaseDays = new long[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private int[] nameCodes = new int[INITIAL_CAPACITY];
+    private int[] descriptionCodes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    @Override
+    public Collection<Film> findAll() {
+        return findAfter(0);
+    }
+
+    @Override
+    public Collection<Film> findAfter(final long afterId) {
+        return new FilmView(afterId);
+    }
+
+    @Override
+    public Optional<Film> findById(final long id) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int row = indexOf(id);
+            return row < 0 ? Optional.empty() : Optional.of(materialize(row));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Film> findByIds(final List<Long> ids) {
+        List<Film> found = new ArrayList<>(ids.size());
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            for (long id : ids) {
+                int row = indexOf(id);
+                if (row >= 0) {
+                    found.add(materialize(row));
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return size();
+    }
+
+    @Override
+    public Film add(final Film film) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            if (film.getId() == null) {
+                film.setId(idGenerator.films().next());
+            }
+            film.setVersion(EntityVersions.INITIAL);
+            write(rowFor(film.getId()), film);
+            return film;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Film> update(final Film film) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            return updateRow(film);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Film> addAll(final List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            if (films.get(0).getId() == null) {
+                long id = idGenerator.films().nextBlock(films.size()).first();
+                for (Film film : films) {
+                    film.setId(id++);
+                }
+            }
+            ensureCapacity(size + films.size());
+            for (Film film : films) {
+                film.setVersion(EntityVersions.INITIAL);
+                write(rowFor(film.getId()), film);
+            }
+            return films;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Optional<Film>> updateAll(final List<Film> films) {
+        List<Optional<Film>> updated = new ArrayList<>(films.size());
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            for (Film film : films) {
+                updated.add(updateRow(film));
+            }
+            return updated;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void restore(final Film film) {
+        if (film.getVersion() == null) {
+            film.setVersion(EntityVersions.INITIAL);
+        }
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            write(rowFor(film.getId()), film);
+            idGenerator.films().reseed(film.getId());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int size() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private Optional<Film> updateRow(final Film film) {
+        int row = indexOf(film.getId());
+        if (row < 0) {
+            return Optional.empty();
+        }
+        Film updated = film.toBuilder()
+                .version(EntityVersions.next("Фильм", film.getId(), versions[row], film.getVersion()))
+                .build();
+        write(row, updated);
+        return Optional.of(updated);
+    }
+
+    // Строка для id: существующая или новая пустая на своём месте. Обычно id идут
+    // по возрастанию, и вставка сводится к добавлению в конец без двоичного поиска
+    private int rowFor(final long id) {
+        int row = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            return row;
+        }
+        row = -row - 1;
+        ensureCapacity(size + 1);
+        shiftRight(row);
+        ids[row] = id;
+        nameCodes[row] = StringDictionary.NULL_CODE;
+        descriptionCodes[row] = StringDictionary.NULL_CODE;
+        size++;
+        return row;
+    }
+
+    private void write(final int row, final Film film) {
+        int nameCode = names.acquire(film.getName());
+        names.release(nameCodes[row]);
+        nameCodes[row] = nameCode;
+
+        int descriptionCode = descriptions.acquire(film.getDescription());
+        descriptions.release(descriptionCodes[row]);
+        descriptionCodes[row] = descriptionCode;
+
+        releaseDays[row] = film.getReleaseDate() == null ? NULL_DATE : film.getReleaseDate().toEpochDay();
+        durations[row] = film.getDuration() == null ? NULL_DURATION : film.getDuration();
+        versions[row] = film.getVersion();
+    }
+
+    private Film materialize(final int row) {
+        return Film.builder()
+                .id(ids[row])
+                .name(names.get(nameCodes[row]))
+                .description(descriptions.get(descriptionCodes[row]))
+                .releaseDate(releaseDays[row] == NULL_DATE ? null : LocalDate.ofEpochDay(releaseDays[row]))
+                .duration(durations[row] == NULL_DURATION ? null : durations[row])
+                .version(versions[row])
+                .build();
+    }
+
+    private int indexOf(final long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row : -1;
+    }
+
+    // Первая строка с id строго больше afterId
+    private int firstRowAfter(final long afterId) {
+        int row = Arrays.binarySearch(ids, 0, size, afterId);
+        return row >= 0 ? row + 1 : -row - 1;
+    }
+
+    private void shiftRight(final int row) {
+        int tail = size - row;
+        if (tail > 0) {
+            System.arraycopy(ids, row, ids, row + 1, tail);
+            System.arraycopy(versions, row, versions, row + 1, tail);
+            System.arraycopy(releaseDays, row, releaseDays, row + 1, tail);
+            System.arraycopy(durations, row, durations, row + 1, tail);
+            System.arraycopy(nameCodes, row, nameCodes, row + 1, tail);
+            System.arraycopy(descriptionCodes, row, descriptionCodes, row + 1, tail);
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > ids.length) {
+            int newLength = Math.max(capacity, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, newLength);
+            versions = Arrays.copyOf(versions, newLength);
+            releaseDays = Arrays.copyOf(releaseDays, newLength);
+            durations = Arrays.copyOf(durations, newLength);
+            nameCodes = Arrays.copyOf(nameCodes, newLength);
+            descriptionCodes = Arrays.copyOf(descriptionCodes, newLength);
+        }
+    }
+
+    private final class FilmView extends AbstractCollection<Film> {
+        private final long afterId;
+
+        FilmView(final long afterId) {
+            this.afterId = afterId;
+        }
+
+        @Override
+        public Iterator<Film> iterator() {
+            return new FilmIterator(afterId);
+        }
+
+        @Override
+        public int size() {
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                return size - firstRowAfter(afterId);
+            } finally {
+                readLock.unlock();
+            }
+        }
+    }
+
+    // Слабо согласованный итератор: видит строки, добавленные после его создания.
+    // Позиция — последний выданный id; номер строки лишь подсказка, пока перед ней ничего не вставили
+    private final class FilmIterator implements Iterator<Film> {
+        private long lastId;
+        private int row = -1;
+
+        FilmIterator(final long afterId) {
+            this.lastId = afterId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                return nextRow() < size;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @Override
+        public Film next() {
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                row = nextRow();
+                if (row >= size) {
+                    throw new NoSuchElementException();
+                }
+                lastId = ids[row];
+                return materialize(row);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        private int nextRow() {
+            return row >= 0 && row < size && ids[row] == lastId ? row + 1 : firstRowAfter(lastId);
+        }
+    }
+}
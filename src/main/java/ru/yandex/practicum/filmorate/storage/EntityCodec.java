@@ -0,0 +1,159 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+// Компактное двоичное представление сущностей для журнала и снимков
+public final class EntityCodec {
+    private static final long NULL_DATE = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    private EntityCodec() {
+    }
+
+    public static void writeFilm(final DataOutput out, final Film film) throws IOException {
+        out.writeLong(film.getId());
+        writeString(out, film.getName());
+        writeString(out, film.getDescription());
+        writeDate(out, film.getReleaseDate());
+        out.writeInt(film.getDuration() == null ? NULL_INT : film.getDuration());
+        writeVersion(out, film.getVersion());
+    }
+
+    public static Film readFilm(final DataInput in) throws IOException {
+        return readFilm(in, true);
+    }
+
+    // Записи, сделанные до появления версий, заканчиваются без неё; такие сущности получают версию 1
+    public static Film readFilm(final DataInput in, final boolean withVersion) throws IOException {
+        long id = in.readLong();
+        String name = readString(in);
+        String description = readString(in);
+        LocalDate releaseDate = readDate(in);
+        int duration = in.readInt();
+        long version = withVersion ? in.readLong() : EntityVersions.INITIAL;
+        return Film.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .releaseDate(releaseDate)
+                .duration(duration == NULL_INT ? null : duration)
+                .version(version)
+                .build();
+    }
+
+    public static void writeUser(final DataOutput out, final User user) throws IOException {
+        out.writeLong(user.getId());
+        writeString(out, user.getEmail());
+        writeString(out, user.getLogin());
+        writeString(out, user.getName());
+        writeDate(out, user.getBirthday());
+        writeVersion(out, user.getVersion());
+    }
+
+    public static User readUser(final DataInput in) throws IOException {
+        return readUser(in, true);
+    }
+
+    public static User readUser(final DataInput in, final boolean withVersion) throws IOException {
+        return User.builder()
+                .id(in.readLong())
+                .email(readString(in))
+                .login(readString(in))
+                .name(readString(in))
+                .birthday(readDate(in))
+                .version(withVersion ? in.readLong() : EntityVersions.INITIAL)
+                .build();
+    }
+
+    public static byte[] encodeFilm(final Film film) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            writeFilm(new DataOutputStream(bytes), film);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Film decodeFilm(final byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            Film film = readFilm(in, false);
+            // В журнале могут остаться записи без версии, сделанные до её появления
+            if (in.available() >= Long.BYTES) {
+                film.setVersion(in.readLong());
+            }
+            return film;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] encodeUser(final User user) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try {
+            writeUser(new DataOutputStream(bytes), user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static User decodeUser(final byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            User user = readUser(in, false);
+            if (in.available() >= Long.BYTES) {
+                user.setVersion(in.readLong());
+            }
+            return user;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] encodeIdPair(final long first, final long second) {
+        return ByteBuffer.allocate(Long.BYTES * 2).putLong(first).putLong(second).array();
+    }
+
+    public static long[] decodeIdPair(final byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        return new long[]{buffer.getLong(), buffer.getLong()};
+    }
+
+    private static void writeString(final DataOutput out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(final DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeVersion(final DataOutput out, final Long version) throws IOException {
+        out.writeLong(version == null ? EntityVersions.INITIAL : version);
+    }
+
+    private static void writeDate(final DataOutput out, final LocalDate date) throws IOException {
+        out.writeLong(date == null ? NULL_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(final DataInput in) throws IOException {
+        long epochDay = in.readLong();
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+
+// Версии сущностей: новая сущность получает версию 1, каждое обновление увеличивает её на единицу
+public final class EntityVersions {
+    public static final long INITIAL = 1;
+
+    private EntityVersions() {
+    }
+
+    // Версия для следующей записи. expected == null — обновление без проверки версии
+    public static long next(String entity, long id, long current, Long expected) {
+        if (expected != null && expected != current) {
+            throw new ConflictException(entity + " с id=" + id + " уже изменён: текущая версия " + current
+                    + ", ожидалась " + expected);
+        }
+        return current + 1;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FilmStorage {
+    Collection<Film> findAll();
+
+    // Ленивое представление в порядке возрастания id, начиная после afterId
+    Collection<Film> findAfter(long afterId);
+
+    Optional<Film> findById(long id);
+
+    // Результат в порядке ids, отсутствующие пропускаются
+    List<Film> findByIds(List<Long> ids);
+
+    // Число записей за O(1), для метрик
+    long count();
+
+    // id выдаёт хранилище, если сервис не выдал его заранее через IdGenerator
+    Film add(Film film);
+
+    // Заменяет сущность копией с версией на единицу больше. Если у аргумента указана версия,
+    // замена выполняется только при совпадении с текущей, иначе ConflictException.
+    // Возвращает сохранённую копию; пусто, если сущность не найдена
+    Optional<Film> update(Film film);
+
+    // Пакетное добавление: id выдаются одним блоком, если не выданы заранее
+    List<Film> addAll(List<Film> films);
+
+    // Результат i соответствует i-му элементу; пустой, если сущность не найдена
+    List<Optional<Film>> updateAll(List<Film> films);
+
+    // Вставка или замена с уже известным id при восстановлении данных
+    void restore(Film film);
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.storage;
+
+public interface FriendStorage {
+    // Связь направленная: дружба хранится как две записи, по одной у каждого пользователя
+    boolean addFriend(long userId, long friendId);
+
+    boolean removeFriend(long userId, long friendId);
+
+    boolean isFriend(long userId, long friendId);
+
+    // Отсортированные id друзей; массив принадлежит вызывающему
+    long[] findFriendIds(long userId);
+
+    long[] findCommonFriendIds(long userId, long otherId);
+
+    void forEachUser(AdjacencyConsumer consumer);
+
+    void restore(long userId, long[] friendIds);
+
+    @FunctionalInterface
+    interface AdjacencyConsumer {
+        void accept(long userId, long[] friendIds);
+    }
+}
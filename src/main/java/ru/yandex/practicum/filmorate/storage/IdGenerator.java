@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class IdGenerator {
+    private final IdSequence films = new IdSequence();
+    private final IdSequence users = new IdSequence();
+
+    public IdSequence films() {
+        return films;
+    }
+
+    public IdSequence users() {
+        return users;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IdSequence {
+    private final AtomicLong counter = new AtomicLong();
+
+    public long next() {
+        return counter.incrementAndGet();
+    }
+
+    public Block nextBlock(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер блока должен быть положительным");
+        }
+        long hi = counter.getAndAdd(size);
+        return new Block(hi + 1, hi + size);
+    }
+
+    public long current() {
+        return counter.get();
+    }
+
+    // Сдвигает счётчик не ниже maxId, например после восстановления из снимка
+    public void reseed(final long maxId) {
+        counter.accumulateAndGet(maxId, Math::max);
+    }
+
+    public record Block(long first, long last) {
+        public int size() {
+            return (int) (last - first + 1);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.films", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+public class InMemoryFilmStorage implements FilmStorage {
+    private final ConcurrentNavigableMap<Long, Film> films = new ConcurrentSkipListMap<>();
+    private final IdGenerator idGenerator;
+    // size() у ConcurrentSkipListMap обходит всю карту, поэтому число записей считается отдельно
+    private final AtomicLong count = new AtomicLong();
+
+    @Override
+    public Collection<Film> findAll() {
+        return Collections.unmodifiableCollection(films.values());
+    }
+
+    @Override
+    public Collection<Film> findAfter(final long afterId) {
+        return Collections.unmodifiableCollection(films.tailMap(afterId, false).values());
+    }
+
+    @Override
+    public Optional<Film> findById(final long id) {
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public List<Film> findByIds(final List<Long> ids) {
+        List<Film> found = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            Film film = films.get(id);
+            if (film != null) {
+                found.add(film);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return count.get();
+    }
+
+    @Override
+    public Film add(final Film film) {
+        if (film.getId() == null) {
+            film.setId(idGenerator.films().next());
+        }
+        film.setVersion(EntityVersions.INITIAL);
+        films.put(film.getId(), film);
+        count.incrementAndGet();
+        return film;
+    }
+
+    // Запись целиком заменяет прежний объект, поэтому читатели
+    // видят либо старую, либо новую версию фильма
+    @Override
+    public Optional<Film> update(final Film film) {
+        // Функция может быть вызвана повторно при гонке, поэтому копия строится внутри неё
+        return Optional.ofNullable(films.computeIfPresent(film.getId(), (id, current) -> film.toBuilder()
+                .version(EntityVersions.next("Фильм", id, current.getVersion(), film.getVersion()))
+                .build()));
+    }
+
+    @Override
+    public List<Film> addAll(final List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        assignIds(films);
+        for (Film film : films) {
+            film.setVersion(EntityVersions.INITIAL);
+            this.films.put(film.getId(), film);
+        }
+        count.addAndGet(films.size());
+        return films;
+    }
+
+    @Override
+    public List<Optional<Film>> updateAll(final List<Film> films) {
+        List<Optional<Film>> updated = new ArrayList<>(films.size());
+        for (Film film : films) {
+            updated.add(update(film));
+        }
+        return updated;
+    }
+
+    @Override
+    public void restore(final Film film) {
+        if (film.getVersion() == null) {
+            film.setVersion(EntityVersions.INITIAL);
+        }
+        if (films.put(film.getId(), film) == null) {
+            count.incrementAndGet();
+        }
+        idGenerator.films().reseed(film.getId());
+    }
+
+    // Пакет приходит либо целиком с id, выданными заранее, либо целиком без них
+    private void assignIds(final List<Film> films) {
+        if (films.get(0).getId() == null) {
+            long id = idGenerator.films().nextBlock(films.size()).first();
+            for (Film film : films) {
+                film.setId(id++);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Списки друзей — неизменяемые отсортированные массивы, которые заменяются целиком,
+// поэтому чтение и пересечение идут без блокировок
+@Component
+public class InMemoryFriendStorage implements FriendStorage {
+    private final Map<Long, long[]> friends = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean addFriend(final long userId, final long friendId) {
+        boolean[] added = {false};
+        friends.compute(userId, (id, current) -> {
+            long[] before = current == null ? SortedLongArrays.EMPTY : current;
+            long[] after = SortedLongArrays.insert(before, friendId);
+            added[0] = after != before;
+            return after;
+        });
+        return added[0];
+    }
+
+    @Override
+    public boolean removeFriend(final long userId, final long friendId) {
+        boolean[] removed = {false};
+        friends.computeIfPresent(userId, (id, current) -> {
+            long[] after = SortedLongArrays.remove(current, friendId);
+            removed[0] = after != current;
+            return after.length == 0 ? null : after;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public boolean isFriend(final long userId, final long friendId) {
+        return Arrays.binarySearch(friends.getOrDefault(userId, SortedLongArrays.EMPTY), friendId) >= 0;
+    }
+
+    @Override
+    public long[] findFriendIds(final long userId) {
+        return friends.getOrDefault(userId, SortedLongArrays.EMPTY).clone();
+    }
+
+    @Override
+    public long[] findCommonFriendIds(final long userId, final long otherId) {
+        return SortedLongArrays.intersect(friends.getOrDefault(userId, SortedLongArrays.EMPTY),
+                friends.getOrDefault(otherId, SortedLongArrays.EMPTY));
+    }
+
+    @Override
+    public void forEachUser(final AdjacencyConsumer consumer) {
+        friends.forEach(consumer::accept);
+    }
+
+    @Override
+    public void restore(final long userId, final long[] friendIds) {
+        if (friendIds.length > 0) {
+            long[] sorted = friendIds.clone();
+            Arrays.sort(sorted);
+            friends.put(userId, sorted);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Счётчики лайков — LongAdder, поэтому лайки одного популярного фильма не дерутся за одну ячейку.
+// Рейтинг — отсортированное множество (лайки, id), которое обновляется при каждом изменении
+// счётчика, так что запрос популярных читает только первые count элементов.
+@Component
+public class InMemoryLikeStorage implements LikeStorage {
+    private static final Comparator<Ranking> BY_POPULARITY = Comparator
+            .comparingLong(Ranking::likes).reversed()
+            .thenComparingLong(Ranking::filmId);
+
+    private final Map<Long, FilmLikes> likes = new ConcurrentHashMap<>();
+    private final NavigableSet<Ranking> rating = new ConcurrentSkipListSet<>(BY_POPULARITY);
+
+    @Override
+    public boolean addLike(final long filmId, final long userId) {
+        FilmLikes filmLikes = likes.computeIfAbsent(filmId, FilmLikes::new);
+        if (!filmLikes.users.add(userId)) {
+            return false;
+        }
+        filmLikes.counter.increment();
+        rerank(filmLikes);
+        return true;
+    }
+
+    @Override
+    public boolean removeLike(final long filmId, final long userId) {
+        FilmLikes filmLikes = likes.get(filmId);
+        if (filmLikes == null || !filmLikes.users.remove(userId)) {
+            return false;
+        }
+        filmLikes.counter.decrement();
+        rerank(filmLikes);
+        return true;
+    }
+
+    @Override
+    public boolean hasLike(final long filmId, final long userId) {
+        FilmLikes filmLikes = likes.get(filmId);
+        return filmLikes != null && filmLikes.users.contains(userId);
+    }
+
+    @Override
+    public long countLikes(final long filmId) {
+        FilmLikes filmLikes = likes.get(filmId);
+        return filmLikes == null ? 0 : filmLikes.counter.sum();
+    }
+
+    @Override
+    public List<Long> findPopularIds(final int count) {
+        List<Long> ids = new ArrayList<>(Math.min(count, 1024));
+        Iterator<Ranking> iterator = rating.iterator();
+        while (ids.size() < count && iterator.hasNext()) {
+            ids.add(iterator.next().filmId());
+        }
+        return ids;
+    }
+
+    @Override
+    public void forEachFilm(final LikesConsumer consumer) {
+        likes.forEach((filmId, filmLikes) -> {
+            long[] userIds = filmLikes.users.stream().mapToLong(Long::longValue).toArray();
+            if (userIds.length > 0) {
+                consumer.accept(filmId, userIds);
+            }
+        });
+    }
+
+    @Override
+    public void restore(final long filmId, final long[] userIds) {
+        for (long userId : userIds) {
+            addLike(filmId, userId);
+        }
+    }
+
+    // Позицию фильма в рейтинге меняет только один поток: остальные лишь отмечают,
+    // что счётчик изменился, и не ждут. Владелец повторяет перестановку, пока есть отметки,
+    // поэтому последнее значение счётчика всегда попадает в рейтинг.
+    private void rerank(FilmLikes filmLikes) {
+        if (filmLikes.pending.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            long current = filmLikes.counter.sum();
+            Ranking ranked = filmLikes.ranked;
+            if (ranked == null || ranked.likes() != current) {
+                if (ranked != null) {
+                    rating.remove(ranked);
+                }
+                filmLikes.ranked = current > 0 ? new Ranking(current, filmLikes.filmId) : null;
+                if (filmLikes.ranked != null) {
+                    rating.add(filmLikes.ranked);
+                }
+            }
+            missed = filmLikes.pending.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private static final class FilmLikes {
+        private final long filmId;
+        private final Set<Long> users = ConcurrentHashMap.newKeySet();
+        private final LongAdder counter = new LongAdder();
+        private final AtomicInteger pending = new AtomicInteger();
+        // Пишется только потоком-владельцем перестановки; видимость даёт pending
+        private Ranking ranked;
+
+        private FilmLikes(final long filmId) {
+            this.filmId = filmId;
+        }
+    }
+
+    private record Ranking(long likes, long filmId) {
+    }
+}
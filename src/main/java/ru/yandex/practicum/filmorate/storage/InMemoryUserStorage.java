@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.users", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+public class InMemoryUserStorage implements UserStorage {
+    private final ConcurrentNavigableMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final IdGenerator idGenerator;
+    // size() у ConcurrentSkipListMap обходит всю карту, поэтому число записей считается отдельно
+    private final AtomicLong count = new AtomicLong();
+
+    @Override
+    public Collection<User> findAll() {
+        return Collections.unmodifiableCollection(users.values());
+    }
+
+    @Override
+    public Collection<User> findAfter(final long afterId) {
+        return Collections.unmodifiableCollection(users.tailMap(afterId, false).values());
+    }
+
+    @Override
+    public Optional<User> findById(final long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public List<User> findByIds(final List<Long> ids) {
+        List<User> found = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            User user = users.get(id);
+            if (user != null) {
+                found.add(user);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return count.get();
+    }
+
+    @Override
+    public User add(final User user) {
+        if (user.getId() == null) {
+            user.setId(idGenerator.users().next());
+        }
+        user.setVersion(EntityVersions.INITIAL);
+        users.put(user.getId(), user);
+        count.incrementAndGet();
+        return user;
+    }
+
+    @Override
+    public Optional<User> update(final User user) {
+        // Функция может быть вызвана повторно при гонке, поэтому копия строится внутри неё
+        return Optional.ofNullable(users.computeIfPresent(user.getId(), (id, current) -> user.toBuilder()
+                .version(EntityVersions.next("Пользователь", id, current.getVersion(), user.getVersion()))
+                .build()));
+    }
+
+    @Override
+    public List<User> addAll(final List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        assignIds(users);
+        for (User user : users) {
+            user.setVersion(EntityVersions.INITIAL);
+            this.users.put(user.getId(), user);
+        }
+        count.addAndGet(users.size());
+        return users;
+    }
+
+    @Override
+    public List<Optional<User>> updateAll(final List<User> users) {
+        List<Optional<User>> updated = new ArrayList<>(users.size());
+        for (User user : users) {
+            updated.add(update(user));
+        }
+        return updated;
+    }
+
+    @Override
+    public void restore(final User user) {
+        if (user.getVersion() == null) {
+            user.setVersion(EntityVersions.INITIAL);
+        }
+        if (users.put(user.getId(), user) == null) {
+            count.incrementAndGet();
+        }
+        idGenerator.users().reseed(user.getId());
+    }
+
+    // Пакет приходит либо целиком с id, выданными заранее, либо целиком без них
+    private void assignIds(final List<User> users) {
+        if (users.get(0).getId() == null) {
+            long id = idGenerator.users().nextBlock(users.size()).first();
+            for (User user : users) {
+                user.setId(id++);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.List;
+
+public interface LikeStorage {
+    boolean addLike(long filmId, long userId);
+
+    boolean removeLike(long filmId, long userId);
+
+    boolean hasLike(long filmId, long userId);
+
+    long countLikes(long filmId);
+
+    // id фильмов с лайками по убыванию их числа, при равенстве — по возрастанию id
+    List<Long> findPopularIds(int count);
+
+    void forEachFilm(LikesConsumer consumer);
+
+    void restore(long filmId, long[] userIds);
+
+    @FunctionalInterface
+    interface LikesConsumer {
+        void accept(long filmId, long[] userIds);
+    }
+}
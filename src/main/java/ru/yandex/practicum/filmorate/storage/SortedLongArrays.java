@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+
+// Операции над отсортированными массивами long без повторов
+public final class SortedLongArrays {
+    public static final long[] EMPTY = new long[0];
+    // Во сколько раз один массив должен быть больше другого, чтобы двоичный поиск выгоднее слияния
+    private static final int GALLOP_RATIO = 32;
+
+    private SortedLongArrays() {
+    }
+
+    public static long[] insert(final long[] values, final long value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position >= 0) {
+            return values;
+        }
+        position = -position - 1;
+        long[] result = new long[values.length + 1];
+        System.arraycopy(values, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(values, position, result, position + 1, values.length - position);
+        return result;
+    }
+
+    public static long[] remove(final long[] values, final long value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position < 0) {
+            return values;
+        }
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, position);
+        System.arraycopy(values, position + 1, result, position, values.length - position - 1);
+        return result;
+    }
+
+    public static long[] intersect(final long[] first, final long[] second) {
+        long[] small = first.length <= second.length ? first : second;
+        long[] large = small == first ? second : first;
+        if (small.length == 0) {
+            return EMPTY;
+        }
+        long[] result = new long[small.length];
+        int count = (long) small.length * GALLOP_RATIO < large.length
+                ? intersectBySearch(small, large, result)
+                : intersectByMerge(small, large, result);
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static int intersectByMerge(final long[] small, final long[] large, final long[] result) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < small.length && j < large.length) {
+            long a = small[i];
+            long b = large[j];
+            if (a == b) {
+                result[count++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static int intersectBySearch(final long[] small, final long[] large, final long[] result) {
+        int count = 0;
+        int from = 0;
+        for (long value : small) {
+            int position = Arrays.binarySearch(large, from, large.length, value);
+            if (position >= 0) {
+                result[count++] = value;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+                if (from == large.length) {
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.index.FilmIndex;
+import ru.yandex.practicum.filmorate.storage.index.UserUniqueIndex;
+import ru.yandex.practicum.filmorate.storage.snapshot.SnapshotManager;
+import ru.yandex.practicum.filmorate.storage.wal.WalRecordType;
+import ru.yandex.practicum.filmorate.storage.wal.WriteAheadLog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Восстанавливает хранилища из снимка и журнала до того, как приложение начнёт принимать запросы
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StorageRecovery {
+    private final Optional<SnapshotManager> snapshotManager;
+    private final WriteAheadLog writeAheadLog;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FriendStorage friendStorage;
+    private final LikeStorage likeStorage;
+    private final List<FilmIndex> filmIndexes;
+    private final UserUniqueIndex userUniqueIndex;
+
+    @Getter
+    private Duration recoveryTime = Duration.ZERO;
+
+    @PostConstruct
+    public void recover() {
+        long started = System.nanoTime();
+        long walSegment = snapshotManager.map(SnapshotManager::restore).orElse(0L);
+        int replayed = writeAheadLog.replay(walSegment, this::apply);
+        if (snapshotManager.isEmpty() && replayed > 0) {
+            compactLog();
+        }
+        for (Film film : filmStorage.findAll()) {
+            filmIndexes.forEach(filmIndex -> filmIndex.index(film));
+        }
+        userStorage.findAll().forEach(userUniqueIndex::index);
+        recoveryTime = Duration.ofNanos(System.nanoTime() - started);
+        log.info("Хранилища восстановлены за {} мс: фильмов {}, пользователей {}", recoveryTime.toMillis(),
+                filmStorage.count(), userStorage.count());
+    }
+
+    // В журналах, записанных до того, как запись в журнал стала упреждающей, создание могло попасть
+    // позже обновления той же сущности, поэтому создание не перетирает уже восстановленную версию
+    // Без снимков журнал — единственная копия данных, и его сегменты иначе не удалялись бы никогда.
+    // Восстановленное состояние переписывается в новый сегмент, после чего прежние удаляются.
+    // Сжатие идёт только при запуске: пока процесс работает, журнал без снимков растёт без ограничений,
+    // поэтому для долгоживущих процессов нужно включать filmorate.snapshot.enabled.
+    // Сбой посреди переписывания безопасен: прежние сегменты на месте, а повтор записей идемпотентен
+    private void compactLog() {
+        long segment = writeAheadLog.checkpoint();
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (Film film : filmStorage.findAll()) {
+            written.add(writeAheadLog.append(WalRecordType.FILM_UPDATED, EntityCodec.encodeFilm(film)));
+        }
+        for (User user : userStorage.findAll()) {
+            written.add(writeAheadLog.append(WalRecordType.USER_UPDATED, EntityCodec.encodeUser(user)));
+        }
+        friendStorage.forEachUser((userId, friendIds) -> {
+            for (long friendId : friendIds) {
+                // Запись о дружбе восстанавливает обе стороны, поэтому пара пишется один раз
+                if (userId < friendId) {
+                    written.add(writeAheadLog.append(WalRecordType.FRIENDSHIP_ADDED,
+                            EntityCodec.encodeIdPair(userId, friendId)));
+                }
+            }
+        });
+        likeStorage.forEachFilm((filmId, userIds) -> {
+            for (long userId : userIds) {
+                written.add(writeAheadLog.append(WalRecordType.LIKE_ADDED, EntityCodec.encodeIdPair(filmId, userId)));
+            }
+        });
+        CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).join();
+        writeAheadLog.truncateBefore(segment);
+        log.info("Журнал сжат: записей {}", written.size());
+    }
+
+    private void apply(WalRecordType type, byte[] payload) {
+        switch (type) {
+            case FILM_CREATED -> {
+                Film film = EntityCodec.decodeFilm(payload);
+                if (filmStorage.findById(film.getId()).isEmpty()) {
+                    filmStorage.restore(film);
+                }
+            }
+            case FILM_UPDATED -> filmStorage.restore(EntityCodec.decodeFilm(payload));
+            case USER_CREATED -> {
+                User user = EntityCodec.decodeUser(payload);
+                if (userStorage.findById(user.getId()).isEmpty()) {
+                    userStorage.restore(user);
+                }
+            }
+            case USER_UPDATED -> userStorage.restore(EntityCodec.decodeUser(payload));
+            case FRIENDSHIP_ADDED -> {
+                long[] pair = EntityCodec.decodeIdPair(payload);
+                friendStorage.addFriend(pair[0], pair[1]);
+                friendStorage.addFriend(pair[1], pair[0]);
+            }
+            case FRIENDSHIP_REMOVED -> {
+                long[] pair = EntityCodec.decodeIdPair(payload);
+                friendStorage.removeFriend(pair[0], pair[1]);
+                friendStorage.removeFriend(pair[1], pair[0]);
+            }
+            case LIKE_ADDED -> {
+                long[] pair = EntityCodec.decodeIdPair(payload);
+                likeStorage.addLike(pair[0], pair[1]);
+            }
+            case LIKE_REMOVED -> {
+                long[] pair = EntityCodec.decodeIdPair(payload);
+                likeStorage.removeLike(pair[0], pair[1]);
+            }
+        }
+    }
+}
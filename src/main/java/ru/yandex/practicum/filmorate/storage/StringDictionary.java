@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Словарь строк со счётчиком ссылок: одинаковые значения хранятся один раз,
+// освободившиеся коды переиспользуются. Потокобезопасность обеспечивает владелец.
+class StringDictionary {
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final Deque<Integer> freeCodes = new ArrayDeque<>();
+    private String[] values = new String[16];
+    private int[] refCounts = new int[16];
+    private int size;
+
+    int acquire(final String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = freeCodes.isEmpty() ? size++ : freeCodes.pop();
+            ensureCapacity(code + 1);
+            values[code] = value;
+            codes.put(value, code);
+        }
+        refCounts[code]++;
+        return code;
+    }
+
+    void release(final int code) {
+        if (code == NULL_CODE) {
+            return;
+        }
+        if (--refCounts[code] == 0) {
+            codes.remove(values[code]);
+            values[code] = null;
+            freeCodes.push(code);
+        }
+    }
+
+    String get(final int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    int distinctValues() {
+        return codes.size();
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > values.length) {
+            int newLength = Math.max(capacity, values.length * 2);
+            values = Arrays.copyOf(values, newLength);
+            refCounts = Arrays.copyOf(refCounts, newLength);
+        }
+    }
+}
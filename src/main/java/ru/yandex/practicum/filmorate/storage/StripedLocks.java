@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Набор блокировок, распределённых по id: изменения одной сущности
+// выполняются по очереди, разных сущностей — параллельно
+public class StripedLocks {
+    private final Lock[] stripes;
+
+    public StripedLocks(final int stripes) {
+        this.stripes = new Lock[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forId(final long id) {
+        return stripes[indexOf(id)];
+    }
+
+    // Блокировка пары id: изменения одной пары идут по очереди,
+    // а разные пары с общим первым id расходятся по разным блокировкам
+    public Lock forPair(final long first, final long second) {
+        return stripes[indexOf(first * 0xC2B2AE3D27D4EB4FL ^ second)];
+    }
+
+    // Блокировки для набора id без повторов и в едином порядке, чтобы пакеты не взаимоблокировались
+    public List<Lock> forIds(final Collection<Long> ids) {
+        BitSet used = new BitSet(stripes.length);
+        for (long id : ids) {
+            used.set(indexOf(id));
+        }
+        List<Lock> locks = new ArrayList<>(used.cardinality());
+        used.stream().forEach(index -> locks.add(stripes[index]));
+        return locks;
+    }
+
+    private int indexOf(final long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserStorage {
+    Collection<User> findAll();
+
+    Collection<User> findAfter(long afterId);
+
+    Optional<User> findById(long id);
+
+    // Результат в порядке ids, отсутствующие пропускаются
+    List<User> findByIds(List<Long> ids);
+
+    // Число записей за O(1), для метрик
+    long count();
+
+    // id выдаёт хранилище, если сервис не выдал его заранее через IdGenerator
+    User add(User user);
+
+    // Заменяет сущность копией с версией на единицу больше. Если у аргумента указана версия,
+    // замена выполняется только при совпадении с текущей, иначе ConflictException.
+    // Возвращает сохранённую копию; пусто, если сущность не найдена
+    Optional<User> update(User user);
+
+    List<User> addAll(List<User> users);
+
+    List<Optional<User>> updateAll(List<User> users);
+
+    // Вставка или замена с уже известным id при восстановлении данных
+    void restore(User user);
+}
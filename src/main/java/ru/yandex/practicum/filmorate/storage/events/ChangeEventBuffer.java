@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage.events;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.ChangeType;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Кольцевой буфер событий изменений. Номера событий идут подряд с 1; событие с номером n
+// лежит в слоте n % capacity, пока его не перезапишет событие n + capacity.
+// Писатель только занимает номер и кладёт событие в слот, читателей он не ждёт: отставший
+// больше чем на capacity подписчик сам обнаруживает, что его события перезаписаны.
+@Component
+public class ChangeEventBuffer {
+    private final AtomicReferenceArray<ChangeEvent> slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Lock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+
+    public ChangeEventBuffer(@Value("${filmorate.events.capacity:65536}") final int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ёмкость буфера событий должна быть степенью двойки: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public long publish(ChangeType type, long entityId, Object entity) {
+        long next = sequence.incrementAndGet();
+        slots.set(index(next), new ChangeEvent(next, type, entityId, entity));
+        // Блокировка берётся, только если кто-то ждёт, и держится лишь на время сигнала
+        if (waiting.get() > 0) {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return next;
+    }
+
+    public long lastSequence() {
+        return sequence.get();
+    }
+
+    // Самое старое событие, которое ещё можно прочитать
+    public long oldestSequence() {
+        return Math.max(1, sequence.get() - mask);
+    }
+
+    public boolean isOverwritten(long sequenceNumber) {
+        return sequenceNumber < oldestSequence();
+    }
+
+    // null, если событие ещё не опубликовано или уже перезаписано
+    public ChangeEvent get(long sequenceNumber) {
+        ChangeEvent event = slots.get(index(sequenceNumber));
+        return event != null && event.getSequence() == sequenceNumber ? event : null;
+    }
+
+    // Ждёт, пока событие с указанным номером станет доступно или будет перезаписано
+    public boolean await(long sequenceNumber, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        waiting.incrementAndGet();
+        try {
+            while (get(sequenceNumber) == null && !isOverwritten(sequenceNumber)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = published.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            waiting.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    private int index(long sequenceNumber) {
+        return (int) (sequenceNumber & mask);
+    }
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+// Вторичный индекс по фильмам. Вызывается после каждого сохранения фильма;
+// изменения одного фильма приходят по очереди, разных — параллельно
+public interface FilmIndex {
+    void index(Film film);
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSearchQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Индексы по дате релиза (в днях от эпохи) и продолжительности фильма
+@Component
+public class FilmRangeIndex implements FilmIndex {
+    private final RangeIndex releaseDays = new RangeIndex();
+    private final RangeIndex durations = new RangeIndex();
+
+    @Override
+    public void index(final Film film) {
+        releaseDays.put(film.getId(), film.getReleaseDate() == null ? null : film.getReleaseDate().toEpochDay());
+        durations.put(film.getId(), film.getDuration() == null ? null : film.getDuration().longValue());
+    }
+
+    // Возвращает id фильмов, подходящих под диапазоны запроса; порядок — по ведущему индексу
+    public List<Long> search(final FilmSearchQuery query) {
+        long fromDay = query.getReleasedFrom() == null ? Long.MIN_VALUE : query.getReleasedFrom().toEpochDay();
+        long toDay = query.getReleasedTo() == null ? Long.MAX_VALUE : query.getReleasedTo().toEpochDay();
+        long minDuration = query.getMinDuration() == null ? Long.MIN_VALUE : query.getMinDuration();
+        long maxDuration = query.getMaxDuration() == null ? Long.MAX_VALUE : query.getMaxDuration();
+
+        List<Long> ids = new ArrayList<>(Math.min(query.getLimit(), 1024));
+        if (query.hasReleaseRange() || !query.hasDurationRange()) {
+            // Ведёт индекс по дате, продолжительность проверяется точечно по id
+            releaseDays.forEachInRange(fromDay, toDay, id -> {
+                if (!query.hasDurationRange() || inRange(durations.keyOf(id), minDuration, maxDuration)) {
+                    ids.add(id);
+                }
+                return ids.size() < query.getLimit();
+            });
+        } else {
+            durations.forEachInRange(minDuration, maxDuration, id -> {
+                ids.add(id);
+                return ids.size() < query.getLimit();
+            });
+        }
+        return ids;
+    }
+
+    // Проверяет фильм по диапазонам запроса без обращения к хранилищу
+    public boolean matches(final long id, final FilmSearchQuery query) {
+        if (query.hasReleaseRange()) {
+            long fromDay = query.getReleasedFrom() == null ? Long.MIN_VALUE : query.getReleasedFrom().toEpochDay();
+            long toDay = query.getReleasedTo() == null ? Long.MAX_VALUE : query.getReleasedTo().toEpochDay();
+            if (!inRange(releaseDays.keyOf(id), fromDay, toDay)) {
+                return false;
+            }
+        }
+        if (query.hasDurationRange()) {
+            long minDuration = query.getMinDuration() == null ? Long.MIN_VALUE : query.getMinDuration();
+            long maxDuration = query.getMaxDuration() == null ? Long.MAX_VALUE : query.getMaxDuration();
+            return inRange(durations.keyOf(id), minDuration, maxDuration);
+        }
+        return true;
+    }
+
+    private static boolean inRange(final Long key, final long from, final long to) {
+        return key != null && key >= from && key <= to;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+// Обратный индекс по названию и описанию фильма с ранжированием по tf-idf
+@Component
+public class FilmTextIndex implements FilmIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final Map<String, PostingList> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> termsByFilm = new ConcurrentHashMap<>();
+
+    @Override
+    public void index(final Film film) {
+        Map<String, Integer> weights = new HashMap<>();
+        TextTokenizer.tokenize(film.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        TextTokenizer.tokenize(film.getDescription())
+                .forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        Set<String> oldTerms = termsByFilm.put(film.getId(), weights.keySet());
+        if (oldTerms != null) {
+            for (String term : oldTerms) {
+                if (!weights.containsKey(term)) {
+                    postings.get(term).remove(film.getId());
+                }
+            }
+        }
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new PostingList())
+                .put(film.getId(), weight));
+    }
+
+    // Возвращает до limit id фильмов, подходящих под filter, по убыванию релевантности
+    public List<Long> search(final String text, final int limit, final LongPredicate filter) {
+        Set<String> terms = new LinkedHashSet<>(TextTokenizer.tokenize(text));
+        int documents = Math.max(1, termsByFilm.size());
+        Map<Long, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            PostingList postingList = postings.get(term);
+            if (postingList == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (double) documents / Math.max(1, postingList.documentFrequency()));
+            postingList.forEach((id, weight) -> scores.merge(id, weight * idf, Double::sum));
+        }
+
+        Comparator<Map.Entry<Long, Double>> byRelevance = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, byRelevance);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (!filter.test(entry.getKey())) {
+                continue;
+            }
+            top.add(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll().getKey());
+        }
+        return ids.reversed();
+    }
+}
@@ -0,0 +1,184 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Список вхождений терма: неизменяемая сжатая основа (разности id и веса в varint)
+// плюс небольшие отсортированные буферы добавлений и удалений. Когда буферы
+// переполняются, они сливаются в новую основу, поэтому изменение не требует
+// перестройки всего индекса.
+class PostingList {
+    private static final int MERGE_THRESHOLD = 128;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Lock lock = new ReentrantLock();
+    private byte[] base = EMPTY;
+    private int baseCount;
+    private long[] pendingIds = new long[8];
+    private int[] pendingWeights = new int[8];
+    private int pendingCount;
+    private long[] removedIds = new long[8];
+    private int removedCount;
+
+    void put(final long id, final int weight) {
+        lock.lock();
+        try {
+            removedCount = removeSorted(removedIds, removedCount, id);
+            int position = Arrays.binarySearch(pendingIds, 0, pendingCount, id);
+            if (position >= 0) {
+                pendingWeights[position] = weight;
+            } else {
+                position = -position - 1;
+                if (pendingCount == pendingIds.length) {
+                    pendingIds = Arrays.copyOf(pendingIds, pendingCount * 2);
+                    pendingWeights = Arrays.copyOf(pendingWeights, pendingCount * 2);
+                }
+                System.arraycopy(pendingIds, position, pendingIds, position + 1, pendingCount - position);
+                System.arraycopy(pendingWeights, position, pendingWeights, position + 1, pendingCount - position);
+                pendingIds[position] = id;
+                pendingWeights[position] = weight;
+                pendingCount++;
+            }
+            mergeIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void remove(final long id) {
+        lock.lock();
+        try {
+            int position = Arrays.binarySearch(pendingIds, 0, pendingCount, id);
+            if (position >= 0) {
+                System.arraycopy(pendingIds, position + 1, pendingIds, position, pendingCount - position - 1);
+                System.arraycopy(pendingWeights, position + 1, pendingWeights, position, pendingCount - position - 1);
+                pendingCount--;
+            }
+            position = Arrays.binarySearch(removedIds, 0, removedCount, id);
+            if (position < 0) {
+                position = -position - 1;
+                if (removedCount == removedIds.length) {
+                    removedIds = Arrays.copyOf(removedIds, removedCount * 2);
+                }
+                System.arraycopy(removedIds, position, removedIds, position + 1, removedCount - position);
+                removedIds[position] = id;
+                removedCount++;
+            }
+            mergeIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Число документов с термом для idf. Считается по слитому обходу: id, который есть и в основе,
+    // и в буфере добавлений, учитывается один раз, а удаление отсутствующего id ничего не вычитает
+    int documentFrequency() {
+        int[] count = {0};
+        forEach((id, weight) -> count[0]++);
+        return count[0];
+    }
+
+    // Обходит вхождения по возрастанию id. Под блокировкой берётся только снимок
+    // ссылок и буферов, разбор основы идёт без блокировки
+    void forEach(final PostingVisitor visitor) {
+        Snapshot snapshot;
+        lock.lock();
+        try {
+            snapshot = new Snapshot(base, baseCount, Arrays.copyOf(pendingIds, pendingCount),
+                    Arrays.copyOf(pendingWeights, pendingCount), Arrays.copyOf(removedIds, removedCount));
+        } finally {
+            lock.unlock();
+        }
+        snapshot.forEach(visitor);
+    }
+
+    private void mergeIfNeeded() {
+        if (pendingCount + removedCount < MERGE_THRESHOLD) {
+            return;
+        }
+        Snapshot snapshot = new Snapshot(base, baseCount, Arrays.copyOf(pendingIds, pendingCount),
+                Arrays.copyOf(pendingWeights, pendingCount), Arrays.copyOf(removedIds, removedCount));
+        ByteArrayOutputStream merged = new ByteArrayOutputStream(base.length + pendingCount * 4);
+        long[] previous = {0};
+        int[] count = {0};
+        snapshot.forEach((id, weight) -> {
+            writeVarLong(merged, id - previous[0]);
+            writeVarLong(merged, weight);
+            previous[0] = id;
+            count[0]++;
+        });
+        base = merged.toByteArray();
+        baseCount = count[0];
+        pendingCount = 0;
+        removedCount = 0;
+    }
+
+    private static int removeSorted(final long[] values, final int count, final long value) {
+        int position = Arrays.binarySearch(values, 0, count, value);
+        if (position < 0) {
+            return count;
+        }
+        System.arraycopy(values, position + 1, values, position, count - position - 1);
+        return count - 1;
+    }
+
+    private static void writeVarLong(final ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    @FunctionalInterface
+    interface PostingVisitor {
+        void visit(long id, int weight);
+    }
+
+    private record Snapshot(byte[] base, int baseCount, long[] pendingIds, int[] pendingWeights, long[] removedIds) {
+
+        // Слияние основы с буфером добавлений; запись из буфера перекрывает запись основы с тем же id
+        void forEach(final PostingVisitor visitor) {
+            int offset = 0;
+            long baseId = 0;
+            int pending = 0;
+            for (int decoded = 0; decoded < baseCount; decoded++) {
+                long delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = base[offset++];
+                    delta |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                baseId += delta;
+                int weight = 0;
+                shift = 0;
+                do {
+                    b = base[offset++];
+                    weight |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+
+                while (pending < pendingIds.length && pendingIds[pending] < baseId) {
+                    emit(visitor, pendingIds[pending], pendingWeights[pending++]);
+                }
+                if (pending < pendingIds.length && pendingIds[pending] == baseId) {
+                    continue;
+                }
+                emit(visitor, baseId, weight);
+            }
+            while (pending < pendingIds.length) {
+                emit(visitor, pendingIds[pending], pendingWeights[pending++]);
+            }
+        }
+
+        private void emit(final PostingVisitor visitor, final long id, final int weight) {
+            if (Arrays.binarySearch(removedIds, id) < 0) {
+                visitor.visit(id, weight);
+            }
+        }
+    }
+}
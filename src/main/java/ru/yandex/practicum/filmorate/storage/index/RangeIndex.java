@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Упорядоченный индекс «значение -> id» на конкурентном списке с пропусками
+class RangeIndex {
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+    private final Map<Long, Long> keyById = new ConcurrentHashMap<>();
+
+    void put(final long id, final Long key) {
+        Long oldKey = key == null ? keyById.remove(id) : keyById.put(id, key);
+        if (key != null) {
+            entries.add(new Entry(key, id));
+        }
+        if (oldKey != null && !oldKey.equals(key)) {
+            entries.remove(new Entry(oldKey, id));
+        }
+    }
+
+    Long keyOf(final long id) {
+        return keyById.get(id);
+    }
+
+    // Обходит id с ключом в [from, to] по возрастанию ключа, пока visitor не вернёт false.
+    // Во время замены ключа в наборе ненадолго лежат обе записи, устаревшая пропускается.
+    void forEachInRange(final long from, final long to, final IdVisitor visitor) {
+        for (Entry entry : entries.subSet(new Entry(from, Long.MIN_VALUE), true, new Entry(to, Long.MAX_VALUE), true)) {
+            Long current = keyById.get(entry.id());
+            if (current != null && current == entry.key() && !visitor.visit(entry.id())) {
+                return;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface IdVisitor {
+        boolean visit(long id);
+    }
+
+    private record Entry(long key, long id) implements Comparable<Entry> {
+        @Override
+        public int compareTo(final Entry other) {
+            int byKey = Long.compare(key, other.key);
+            return byKey != 0 ? byKey : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Разбивает текст на слова из букв и цифр любого алфавита, приводит к нижнему регистру, «ё» заменяет на «е»
+final class TextTokenizer {
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private TextTokenizer() {
+    }
+
+    static List<String> tokenize(final String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                int lower = Character.toLowerCase(codePoint);
+                token.appendCodePoint(lower == 'ё' ? 'е' : lower);
+            } else {
+                flush(token, tokens);
+            }
+        }
+        flush(token, tokens);
+        return tokens;
+    }
+
+    private static void flush(final StringBuilder token, final List<String> tokens) {
+        if (token.length() >= MIN_TOKEN_LENGTH) {
+            tokens.add(token.toString());
+        }
+        token.setLength(0);
+    }
+}
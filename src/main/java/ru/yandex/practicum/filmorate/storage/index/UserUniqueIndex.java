@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Уникальные индексы по email и логину без учёта регистра. Ключ занимается через putIfAbsent,
+// поэтому из параллельных запросов с одним email проходит ровно один, а обход пользователей не нужен.
+// Пока пользователь создаётся и id ещё не выдан, ключи принадлежат отрицательной брони
+@Component
+public class UserUniqueIndex {
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+    private final Map<String, Long> logins = new ConcurrentHashMap<>();
+    private final AtomicLong reservations = new AtomicLong();
+
+    public long reserve() {
+        return -reservations.incrementAndGet();
+    }
+
+    // Занимает email и логин за owner. Если один из ключей занят другим владельцем,
+    // ничего не меняет и бросает ConflictException
+    public void claim(long owner, User user) {
+        String email = normalize(user.getEmail());
+        boolean emailClaimed = claim(emails, email, owner, "email " + user.getEmail());
+        try {
+            claim(logins, normalize(user.getLogin()), owner, "логином " + user.getLogin());
+        } catch (ConflictException e) {
+            if (emailClaimed) {
+                emails.remove(email, owner);
+            }
+            throw e;
+        }
+    }
+
+    // Переводит ключи брони на выданный пользователю id
+    public void bind(long reservation, User user) {
+        replace(emails, normalize(user.getEmail()), reservation, user.getId());
+        replace(logins, normalize(user.getLogin()), reservation, user.getId());
+    }
+
+    // Освобождает ключи released, которых нет у kept
+    public void release(long owner, User released, User kept) {
+        String email = normalize(released.getEmail());
+        if (email != null && (kept == null || !email.equals(normalize(kept.getEmail())))) {
+            emails.remove(email, owner);
+        }
+        String login = normalize(released.getLogin());
+        if (login != null && (kept == null || !login.equals(normalize(kept.getLogin())))) {
+            logins.remove(login, owner);
+        }
+    }
+
+    public OptionalLong findByLogin(String login) {
+        Long id = login == null ? null : logins.get(normalize(login));
+        return id == null || id < 0 ? OptionalLong.empty() : OptionalLong.of(id);
+    }
+
+    // При восстановлении. В данных, записанных до появления индекса, могут быть повторы — ключ остаётся за первым
+    public void index(User user) {
+        String email = normalize(user.getEmail());
+        if (email != null) {
+            emails.putIfAbsent(email, user.getId());
+        }
+        String login = normalize(user.getLogin());
+        if (login != null) {
+            logins.putIfAbsent(login, user.getId());
+        }
+    }
+
+    private static boolean claim(Map<String, Long> index, String key, long owner, String description) {
+        if (key == null) {
+            return false;
+        }
+        Long current = index.putIfAbsent(key, owner);
+        if (current == null) {
+            return true;
+        }
+        if (current == owner) {
+            return false;
+        }
+        throw new ConflictException("Пользователь с " + description + " уже существует");
+    }
+
+    private static void replace(Map<String, Long> index, String key, long from, long to) {
+        if (key != null) {
+            index.replace(key, from, to);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
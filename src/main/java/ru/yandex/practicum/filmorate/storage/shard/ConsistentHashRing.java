@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Неизменяемое кольцо согласованного хеширования. Каждый узел занимает virtualNodes точек,
+// id принадлежит узлу первой точки по часовой стрелке от хеша id. При добавлении узла
+// к нему переезжает примерно 1/N ключей, остальные остаются на своих местах
+public final class ConsistentHashRing<N> {
+    private final List<N> nodes;
+    private final List<String> keys;
+    private final int virtualNodes;
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(final int virtualNodes) {
+        this(List.of(), List.of(), virtualNodes);
+    }
+
+    private ConsistentHashRing(final List<N> nodes, final List<String> keys, final int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Число виртуальных узлов должно быть положительным");
+        }
+        this.nodes = nodes;
+        this.keys = keys;
+        this.virtualNodes = virtualNodes;
+        int size = nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        int[] nodeIndexes = new int[size];
+        for (int node = 0; node < nodes.size(); node++) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                hashes[node * virtualNodes + replica] = hash(keys.get(node) + "#" + replica);
+                nodeIndexes[node * virtualNodes + replica] = node;
+            }
+        }
+        // Сортируем точки вместе с владельцами через перестановку индексов
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (left, right) -> Long.compare(hashes[left], hashes[right]));
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = nodeIndexes[order[i]];
+        }
+    }
+
+    // key — устойчивое имя узла (адрес): от него зависят точки, а значит и раскладка ключей
+    public ConsistentHashRing<N> withNode(final N node, final String key) {
+        if (keys.contains(key)) {
+            throw new IllegalArgumentException("Узел уже есть в кольце: " + key);
+        }
+        List<N> newNodes = new ArrayList<>(nodes);
+        newNodes.add(node);
+        List<String> newKeys = new ArrayList<>(keys);
+        newKeys.add(key);
+        return new ConsistentHashRing<>(List.copyOf(newNodes), List.copyOf(newKeys), virtualNodes);
+    }
+
+    public N nodeFor(final long id) {
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("В кольце нет узлов");
+        }
+        int point = Arrays.binarySearch(points, mix(id));
+        if (point < 0) {
+            point = -point - 1;
+        }
+        return nodes.get(owners[point == points.length ? 0 : point]);
+    }
+
+    public List<N> nodes() {
+        return nodes;
+    }
+
+    // FNV-1a по байтам имени с перемешиванием, чтобы соседние имена давали далёкие точки
+    private static long hash(final String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // Финализатор MurmurHash3: последовательные id расходятся по всему кольцу
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,239 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Клиент одного шарда. Соединения берутся из пула свободных и возвращаются после ответа,
+// поэтому их число не превышает число одновременных запросов к шарду.
+// Соединение устанавливается не дольше connectTimeout. Отправка запроса и ожидание ответа ограничены
+// readTimeout каждое; соединение, на котором истекло ожидание, закрывается, иначе запоздавший ответ
+// прочитал бы следующий запрос. У записи в сокет нет своего таймаута, поэтому зависшую отправку
+// прерывает закрытие сокета по сроку
+public class ShardClient implements Closeable {
+    private static final ScheduledExecutorService WRITE_DEADLINES = Executors.newSingleThreadScheduledExecutor(
+            task -> Thread.ofPlatform().daemon().name("shard-write-deadline").unstarted(task));
+
+    private final String address;
+    private final InetSocketAddress socketAddress;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final Queue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    // address — host:port
+    public ShardClient(final String address, final Duration connectTimeout, final Duration readTimeout) {
+        int separator = address.lastIndexOf(':');
+        if (separator < 1) {
+            throw new IllegalArgumentException("Адрес шарда должен быть в виде host:port: " + address);
+        }
+        if (connectTimeout.isNegative() || connectTimeout.isZero()) {
+            throw new IllegalArgumentException("Время установки соединения с шардом должно быть положительным");
+        }
+        if (readTimeout.isNegative() || readTimeout.isZero()) {
+            throw new IllegalArgumentException("Время ожидания ответа шарда должно быть положительным");
+        }
+        this.address = address;
+        this.connectTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, connectTimeout.toMillis());
+        this.readTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, readTimeout.toMillis());
+        this.socketAddress = new InetSocketAddress(address.substring(0, separator),
+                Integer.parseInt(address.substring(separator + 1)));
+    }
+
+    public String address() {
+        return address;
+    }
+
+    public <T> Optional<T> get(ShardEntity<T> entity, long id) {
+        return call(entity, ShardProtocol.GET, out -> out.writeLong(id),
+                (status, in) -> status == ShardProtocol.FOUND ? Optional.of(entity.read(in)) : Optional.empty());
+    }
+
+    public <T> List<T> getMany(ShardEntity<T> entity, Collection<Long> ids) {
+        return call(entity, ShardProtocol.GET_MANY, out -> {
+            out.writeInt(ids.size());
+            for (long id : ids) {
+                out.writeLong(id);
+            }
+        }, (status, in) -> readList(entity, in));
+    }
+
+    public <T> List<T> scan(ShardEntity<T> entity, long afterId, int limit) {
+        return call(entity, ShardProtocol.SCAN, out -> {
+            out.writeLong(afterId);
+            out.writeInt(limit);
+        }, (status, in) -> readList(entity, in));
+    }
+
+    public long countAfter(ShardEntity<?> entity, long afterId) {
+        return call(entity, ShardProtocol.COUNT_AFTER, out -> out.writeLong(afterId), (status, in) -> in.readLong());
+    }
+
+    public <T> void putAll(ShardEntity<T> entity, Collection<T> entities) {
+        call(entity, ShardProtocol.PUT_ALL, out -> {
+            out.writeInt(entities.size());
+            for (T item : entities) {
+                entity.write(out, item);
+            }
+        }, (status, in) -> null);
+    }
+
+    // Версия аргумента — ожидаемая; null — без проверки
+    public <T> Optional<T> update(ShardEntity<T> entity, T replacement) {
+        Long expected = entity.version().apply(replacement);
+        return call(entity, ShardProtocol.UPDATE, out -> {
+            out.writeBoolean(expected != null);
+            out.writeLong(expected == null ? 0 : expected);
+            entity.write(out, replacement);
+        }, (status, in) -> switch (status) {
+            case ShardProtocol.FOUND -> Optional.of(entity.read(in));
+            case ShardProtocol.CONFLICT -> throw new ConflictException(in.readUTF());
+            default -> Optional.empty();
+        });
+    }
+
+    public void removeAll(ShardEntity<?> entity, Collection<Long> ids) {
+        call(entity, ShardProtocol.REMOVE_ALL, out -> {
+            out.writeInt(ids.size());
+            for (long id : ids) {
+                out.writeLong(id);
+            }
+        }, (status, in) -> null);
+    }
+
+    public long maxId(ShardEntity<?> entity) {
+        return call(entity, ShardProtocol.MAX_ID, out -> {
+        }, (status, in) -> in.readLong());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private <R> R call(ShardEntity<?> entity, byte operation, RequestWriter request, ResponseReader<R> response) {
+        Connection connection = borrow();
+        boolean reusable = false;
+        try {
+            send(connection, entity, operation, request);
+            byte status = connection.in().readByte();
+            if (status == ShardProtocol.ERROR) {
+                throw new IllegalStateException("Шард " + address + " вернул ошибку: " + connection.in().readUTF());
+            }
+            R result;
+            try {
+                result = response.read(status, connection.in());
+            } catch (ConflictException e) {
+                reusable = true;
+                throw e;
+            }
+            reusable = true;
+            return result;
+        } catch (SocketTimeoutException e) {
+            throw new UncheckedIOException("Шард " + address + " не ответил за " + readTimeoutMillis + " мс", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Шард " + address + " недоступен", e);
+        } finally {
+            if (reusable && !closed) {
+                idle.offer(connection);
+            } else {
+                connection.close();
+            }
+        }
+    }
+
+    private void send(Connection connection, ShardEntity<?> entity, byte operation, RequestWriter request)
+            throws IOException {
+        AtomicBoolean expired = new AtomicBoolean();
+        ScheduledFuture<?> deadline = WRITE_DEADLINES.schedule(() -> {
+            expired.set(true);
+            connection.close();
+        }, readTimeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            connection.out().writeByte(entity.code());
+            connection.out().writeByte(operation);
+            request.write(connection.out());
+            connection.out().flush();
+        } catch (IOException e) {
+            if (expired.get()) {
+                throw new SocketTimeoutException("Шард " + address + " не принял запрос за " + readTimeoutMillis
+                        + " мс");
+            }
+            throw e;
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+
+    private Connection borrow() {
+        Connection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        try {
+            Socket socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(readTimeoutMillis);
+            socket.connect(socketAddress, connectTimeoutMillis);
+            return new Connection(socket,
+                    new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Шард " + address + " недоступен", e);
+        }
+    }
+
+    private static <T> List<T> readList(ShardEntity<T> entity, DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(entity.read(in));
+        }
+        return list;
+    }
+
+    @FunctionalInterface
+    private interface RequestWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<R> {
+        R read(byte status, DataInputStream in) throws IOException;
+    }
+
+    private record Connection(Socket socket, DataInputStream in, DataOutputStream out) {
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // соединение всё равно выбрасывается
+            }
+        }
+    }
+}
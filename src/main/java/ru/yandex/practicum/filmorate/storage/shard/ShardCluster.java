@@ -0,0 +1,357 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// Маршрутизатор по шардам: id определяет шард через кольцо согласованного хеширования.
+// Запросы по многим id и обходы рассылаются на все нужные шарды параллельно, ответы сливаются.
+// Изменение состава кольца с переносом ключей идёт под блокировкой записи, обычные операции —
+// под блокировкой чтения, поэтому во время переноса никто не видит ключ ни на одном шарде.
+// При запуске ключи, лежащие не на своём шарде (в конфигурацию добавили узел), переносятся
+// до того, как хранилища начнут обслуживать запросы
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.shards.nodes")
+public class ShardCluster {
+    private static final int PAGE_SIZE = 256;
+
+    private final ReadWriteLock topology = new ReentrantReadWriteLock();
+    private final ExecutorService scatter = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private volatile ConsistentHashRing<ShardClient> ring;
+    // Растёт при каждой смене кольца; открытые обходы по нему замечают перенос ключей
+    private volatile long epoch;
+
+    public ShardCluster(@Value("${filmorate.shards.nodes}") final List<String> nodes,
+                        @Value("${filmorate.shards.virtual-nodes:128}") final int virtualNodes,
+                        @Value("${filmorate.shards.connect-timeout:2s}") final Duration connectTimeout,
+                        @Value("${filmorate.shards.read-timeout:5s}") final Duration readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        ConsistentHashRing<ShardClient> initial = new ConsistentHashRing<>(virtualNodes);
+        for (String node : nodes) {
+            initial = initial.withNode(new ShardClient(node.trim(), connectTimeout, readTimeout), node.trim());
+        }
+        this.ring = initial;
+        log.info("Хранилище разделено на шарды: {}", nodes);
+        // Узлы, убранные из конфигурации, здесь не опрашиваются: их данные нужно перенести заранее
+        long moved = move(ShardEntity.FILM, initial.nodes(), initial)
+                + move(ShardEntity.USER, initial.nodes(), initial);
+        if (moved > 0) {
+            log.info("Состав шардов изменился, перенесено записей: {}", moved);
+        }
+    }
+
+    public List<String> nodes() {
+        return ring.nodes().stream().map(ShardClient::address).toList();
+    }
+
+    public <T> Optional<T> get(ShardEntity<T> entity, long id) {
+        return read(current -> current.nodeFor(id).get(entity, id));
+    }
+
+    // Результат в порядке ids, отсутствующие пропускаются
+    public <T> List<T> getMany(ShardEntity<T> entity, List<Long> ids) {
+        return read(current -> {
+            Map<ShardClient, List<Long>> byShard = new LinkedHashMap<>();
+            for (long id : ids) {
+                byShard.computeIfAbsent(current.nodeFor(id), shard -> new ArrayList<>()).add(id);
+            }
+            Map<Long, T> found = new HashMap<>(ids.size() * 2);
+            for (List<T> part : gather(byShard.keySet(), shard -> shard.getMany(entity, byShard.get(shard)))) {
+                part.forEach(item -> found.put(entity.id().applyAsLong(item), item));
+            }
+            List<T> ordered = new ArrayList<>(found.size());
+            for (long id : ids) {
+                T item = found.get(id);
+                if (item != null) {
+                    ordered.add(item);
+                }
+            }
+            return ordered;
+        });
+    }
+
+    public long countAfter(ShardEntity<?> entity, long afterId) {
+        return read(current -> gather(current.nodes(), shard -> shard.countAfter(entity, afterId)).stream()
+                .mapToLong(Long::longValue)
+                .sum());
+    }
+
+    public long maxId(ShardEntity<?> entity) {
+        return read(current -> gather(current.nodes(), shard -> shard.maxId(entity)).stream()
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0));
+    }
+
+    public <T> void putAll(ShardEntity<T> entity, List<T> entities) {
+        read(current -> {
+            Map<ShardClient, List<T>> byShard = new LinkedHashMap<>();
+            for (T item : entities) {
+                byShard.computeIfAbsent(current.nodeFor(entity.id().applyAsLong(item)), shard -> new ArrayList<>())
+                        .add(item);
+            }
+            return gather(byShard.keySet(), shard -> {
+                shard.putAll(entity, byShard.get(shard));
+                return null;
+            });
+        });
+    }
+
+    public <T> Optional<T> update(ShardEntity<T> entity, T replacement) {
+        return read(current -> current.nodeFor(entity.id().applyAsLong(replacement)).update(entity, replacement));
+    }
+
+    // Ленивое представление по возрастанию id: каждый шард отдаёт страницы своих сущностей,
+    // страницы сливаются слиянием k отсортированных потоков
+    public <T> Collection<T> findAfter(ShardEntity<T> entity, long afterId) {
+        return new MergedView<>(entity, afterId);
+    }
+
+    // Добавляет шард и переносит на него ключи, которые теперь ему принадлежат
+    public long addShard(String address) {
+        ShardClient added = new ShardClient(address, connectTimeout, readTimeout);
+        Lock lock = topology.writeLock();
+        lock.lock();
+        try {
+            ConsistentHashRing<ShardClient> current = ring;
+            ConsistentHashRing<ShardClient> next = current.withNode(added, address);
+            long moved = move(ShardEntity.FILM, current.nodes(), next) + move(ShardEntity.USER, current.nodes(), next);
+            ring = next;
+            epoch++;
+            log.info("Добавлен шард {}, перенесено записей: {}", address, moved);
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        scatter.shutdownNow();
+        ring.nodes().forEach(ShardClient::close);
+    }
+
+    // Переносит с шардов sources ключи, которые по кольцу next принадлежат другим шардам
+    private <T> long move(ShardEntity<T> entity, Collection<ShardClient> sources,
+                          ConsistentHashRing<ShardClient> next) {
+        return gather(sources, shard -> {
+            long moved = 0;
+            long afterId = 0;
+            List<T> page;
+            do {
+                page = shard.scan(entity, afterId, PAGE_SIZE);
+                Map<ShardClient, List<T>> leaving = new LinkedHashMap<>();
+                for (T item : page) {
+                    afterId = entity.id().applyAsLong(item);
+                    ShardClient owner = next.nodeFor(afterId);
+                    if (owner != shard) {
+                        leaving.computeIfAbsent(owner, target -> new ArrayList<>()).add(item);
+                    }
+                }
+                for (Map.Entry<ShardClient, List<T>> target : leaving.entrySet()) {
+                    // Сначала копия на новом шарде, потом удаление: при сбое запись не теряется
+                    target.getKey().putAll(entity, target.getValue());
+                    shard.removeAll(entity, target.getValue().stream()
+                            .map(item -> entity.id().applyAsLong(item))
+                            .toList());
+                    moved += target.getValue().size();
+                }
+            } while (page.size() == PAGE_SIZE);
+            return moved;
+        }).stream().mapToLong(Long::longValue).sum();
+    }
+
+    private <R> R read(Function<ConsistentHashRing<ShardClient>, R> operation) {
+        Lock lock = topology.readLock();
+        lock.lock();
+        try {
+            return operation.apply(ring);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <R> List<R> gather(Collection<ShardClient> shards, Function<ShardClient, R> call) {
+        if (shards.size() == 1) {
+            return Collections.singletonList(call.apply(shards.iterator().next()));
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(shards.size());
+        for (ShardClient shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> call.apply(shard), scatter));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private final class MergedView<T> extends AbstractCollection<T> {
+        private final ShardEntity<T> entity;
+        private final long afterId;
+
+        MergedView(final ShardEntity<T> entity, final long afterId) {
+            this.entity = entity;
+            this.afterId = afterId;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new MergingIterator<>(entity, afterId);
+        }
+
+        // Подсчёт обходит шарды, поэтому поток строится без заранее известного размера
+        @Override
+        public Spliterator<T> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, countAfter(entity, afterId));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+    }
+
+    // Если кольцо сменилось во время обхода, курсоры открываются заново по новому кольцу
+    // с последнего выданного id: перенесённые ключи не теряются и не выдаются дважды
+    private final class MergingIterator<T> implements Iterator<T> {
+        private final ShardEntity<T> entity;
+        private long lastId;
+        private long openedAt;
+        private List<Cursor<T>> cursors;
+
+        MergingIterator(final ShardEntity<T> entity, final long afterId) {
+            this.entity = entity;
+            this.lastId = afterId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return smallest() != null;
+        }
+
+        @Override
+        public T next() {
+            Cursor<T> cursor = smallest();
+            if (cursor == null) {
+                throw new NoSuchElementException();
+            }
+            lastId = cursor.peekId();
+            return cursor.take();
+        }
+
+        // Шардов немного, поэтому линейный выбор минимума дешевле кучи
+        private Cursor<T> smallest() {
+            while (true) {
+                if (cursors == null || openedAt != epoch) {
+                    open();
+                }
+                Cursor<T> smallest = null;
+                boolean stale = false;
+                for (Cursor<T> cursor : cursors) {
+                    if (cursor.hasNext()) {
+                        if (smallest == null || cursor.peekId() < smallest.peekId()) {
+                            smallest = cursor;
+                        }
+                    } else {
+                        stale |= cursor.stale();
+                    }
+                }
+                if (!stale) {
+                    return smallest;
+                }
+                cursors = null;
+            }
+        }
+
+        private void open() {
+            long from = lastId;
+            cursors = read(current -> {
+                openedAt = epoch;
+                List<ShardClient> shards = current.nodes();
+                List<List<T>> pages = gather(shards, shard -> shard.scan(entity, from, PAGE_SIZE));
+                List<Cursor<T>> opened = new ArrayList<>(shards.size());
+                for (int i = 0; i < shards.size(); i++) {
+                    opened.add(new Cursor<>(entity, shards.get(i), pages.get(i), openedAt));
+                }
+                return opened;
+            });
+        }
+    }
+
+    private final class Cursor<T> {
+        private final ShardEntity<T> entity;
+        private final ShardClient shard;
+        private final long openedAt;
+        private List<T> page;
+        private int position;
+        private boolean stale;
+
+        Cursor(final ShardEntity<T> entity, final ShardClient shard, final List<T> page, final long openedAt) {
+            this.entity = entity;
+            this.shard = shard;
+            this.page = page;
+            this.openedAt = openedAt;
+        }
+
+        // Следующая страница читается только при том же кольце, иначе курсор помечается устаревшим
+        boolean hasNext() {
+            if (position < page.size()) {
+                return true;
+            }
+            if (stale || page.size() < PAGE_SIZE) {
+                return false;
+            }
+            long lastId = entity.id().applyAsLong(page.get(page.size() - 1));
+            List<T> next = read(current -> epoch == openedAt ? shard.scan(entity, lastId, PAGE_SIZE) : null);
+            if (next == null) {
+                stale = true;
+                return false;
+            }
+            page = next;
+            position = 0;
+            return !page.isEmpty();
+        }
+
+        boolean stale() {
+            return stale;
+        }
+
+        long peekId() {
+            return entity.id().applyAsLong(page.get(position));
+        }
+
+        T take() {
+            return page.get(position++);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EntityCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Описание вида сущности для шардов: код в протоколе, кодек и работа с id и версией.
+// Сервер и маршрутизатор обобщены по нему, поэтому фильмы и пользователи идут одним кодом
+public record ShardEntity<T>(byte code,
+                             String name,
+                             ToLongFunction<T> id,
+                             Function<T, Long> version,
+                             VersionSetter<T> withVersion,
+                             Writer<T> writer,
+                             Reader<T> reader) {
+
+    public static final ShardEntity<Film> FILM = new ShardEntity<>((byte) 1, "Фильм", Film::getId, Film::getVersion,
+            (film, version) -> film.toBuilder().version(version).build(), EntityCodec::writeFilm, EntityCodec::readFilm);
+
+    public static final ShardEntity<User> USER = new ShardEntity<>((byte) 2, "Пользователь", User::getId,
+            User::getVersion, (user, version) -> user.toBuilder().version(version).build(), EntityCodec::writeUser,
+            EntityCodec::readUser);
+
+    static ShardEntity<?> of(byte code) {
+        return switch (code) {
+            case 1 -> FILM;
+            case 2 -> USER;
+            default -> throw new IllegalArgumentException("Неизвестный вид сущности: " + code);
+        };
+    }
+
+    void write(DataOutput out, T entity) throws IOException {
+        writer.write(out, entity);
+    }
+
+    T read(DataInput in) throws IOException {
+        return reader.read(in);
+    }
+
+    @FunctionalInterface
+    public interface VersionSetter<T> {
+        T apply(T entity, long version);
+    }
+
+    @FunctionalInterface
+    public interface Writer<T> {
+        void write(DataOutput out, T entity) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(DataInput in) throws IOException;
+    }
+}
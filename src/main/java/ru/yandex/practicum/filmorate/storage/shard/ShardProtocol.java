@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+// Двоичный протокол шарда поверх TCP. Запрос: [byte вид сущности][byte операция][аргументы],
+// ответ: [byte статус][результат]. Сущности кодируются EntityCodec, списки — [int длина][элементы].
+// Соединение обслуживает запросы по одному; после ошибки ввода-вывода оно закрывается
+final class ShardProtocol {
+    // Аргументы: long id. Результат: FOUND + сущность или NOT_FOUND
+    static final byte GET = 1;
+    // Аргументы: список long id. Результат: OK + список найденных сущностей
+    static final byte GET_MANY = 2;
+    // Аргументы: long afterId, int limit. Результат: OK + список сущностей по возрастанию id
+    static final byte SCAN = 3;
+    // Аргументы: long afterId. Результат: OK + long число сущностей с id больше afterId
+    static final byte COUNT_AFTER = 4;
+    // Аргументы: список сущностей с id и версией. Вставка или замена. Результат: OK
+    static final byte PUT_ALL = 5;
+    // Аргументы: сущность, её версия — ожидаемая. Результат: FOUND + новая копия, NOT_FOUND или CONFLICT + текст
+    static final byte UPDATE = 6;
+    // Аргументы: список long id. Результат: OK
+    static final byte REMOVE_ALL = 7;
+    // Результат: OK + long наибольший id (0, если пусто)
+    static final byte MAX_ID = 8;
+
+    static final byte OK = 0;
+    static final byte FOUND = 1;
+    static final byte NOT_FOUND = 2;
+    static final byte CONFLICT = 3;
+    // Результат: текст ошибки
+    static final byte ERROR = 4;
+
+    private ShardProtocol() {
+    }
+}
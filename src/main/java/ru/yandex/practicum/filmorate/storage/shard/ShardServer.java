@@ -0,0 +1,224 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Шард: хранит свою часть фильмов и пользователей и отвечает по ShardProtocol.
+// Запускается отдельным процессом (main) или внутри JVM, например в тестах.
+// Каждое соединение обслуживает свой виртуальный поток
+@Slf4j
+public class ShardServer implements Closeable {
+    private final ServerSocket serverSocket;
+    private final Map<Byte, ShardTable<?>> tables = Map.of(
+            ShardEntity.FILM.code(), new ShardTable<>(ShardEntity.FILM),
+            ShardEntity.USER.code(), new ShardTable<>(ShardEntity.USER));
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    public ShardServer(final int port) throws IOException {
+        serverSocket = new ServerSocket(port);
+        Thread.ofPlatform().daemon().name("shard-acceptor-" + port()).start(this::acceptLoop);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long count(ShardEntity<?> entity) {
+        return tables.get(entity.code()).count.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread.ofVirtual().name("shard-connection").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Шард на порту {}: ошибка приёма соединения", port(), e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                byte kind;
+                try {
+                    kind = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                byte operation = in.readByte();
+                try {
+                    ShardTable<?> table = tables.get(kind);
+                    if (table == null) {
+                        throw new IllegalArgumentException("Неизвестный вид сущности: " + kind);
+                    }
+                    table.handle(operation, in, out);
+                    out.flush();
+                } catch (RuntimeException e) {
+                    // Аргументы запроса могли быть прочитаны не до конца, поэтому соединение закрывается
+                    out.writeByte(ShardProtocol.ERROR);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                    out.flush();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                log.debug("Шард на порту {}: соединение закрыто с ошибкой", port(), e);
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9101;
+        ShardServer server = new ShardServer(port);
+        log.info("Шард запущен на порту {}", server.port());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                log.warn("Ошибка остановки шарда", e);
+            }
+        }));
+        Thread.currentThread().join();
+    }
+
+    private static final class ShardTable<T> {
+        private final ShardEntity<T> entity;
+        private final ConcurrentNavigableMap<Long, T> rows = new ConcurrentSkipListMap<>();
+        private final AtomicLong count = new AtomicLong();
+
+        ShardTable(final ShardEntity<T> entity) {
+            this.entity = entity;
+        }
+
+        void handle(byte operation, DataInputStream in, DataOutputStream out) throws IOException {
+            switch (operation) {
+                case ShardProtocol.GET -> {
+                    T row = rows.get(in.readLong());
+                    out.writeByte(row == null ? ShardProtocol.NOT_FOUND : ShardProtocol.FOUND);
+                    if (row != null) {
+                        entity.write(out, row);
+                    }
+                }
+                case ShardProtocol.GET_MANY -> {
+                    int size = in.readInt();
+                    List<T> found = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        T row = rows.get(in.readLong());
+                        if (row != null) {
+                            found.add(row);
+                        }
+                    }
+                    writeList(out, found);
+                }
+                case ShardProtocol.SCAN -> {
+                    long afterId = in.readLong();
+                    int limit = in.readInt();
+                    List<T> page = new ArrayList<>(Math.min(limit, 1024));
+                    for (T row : rows.tailMap(afterId, false).values()) {
+                        if (page.size() == limit) {
+                            break;
+                        }
+                        page.add(row);
+                    }
+                    writeList(out, page);
+                }
+                case ShardProtocol.COUNT_AFTER -> {
+                    long afterId = in.readLong();
+                    out.writeByte(ShardProtocol.OK);
+                    out.writeLong(afterId <= 0 ? count.get() : rows.tailMap(afterId, false).size());
+                }
+                case ShardProtocol.PUT_ALL -> {
+                    int size = in.readInt();
+                    for (int i = 0; i < size; i++) {
+                        T row = entity.read(in);
+                        if (rows.put(entity.id().applyAsLong(row), row) == null) {
+                            count.incrementAndGet();
+                        }
+                    }
+                    out.writeByte(ShardProtocol.OK);
+                }
+                case ShardProtocol.UPDATE -> update(in, out);
+                case ShardProtocol.REMOVE_ALL -> {
+                    int size = in.readInt();
+                    for (int i = 0; i < size; i++) {
+                        if (rows.remove(in.readLong()) != null) {
+                            count.decrementAndGet();
+                        }
+                    }
+                    out.writeByte(ShardProtocol.OK);
+                }
+                case ShardProtocol.MAX_ID -> {
+                    out.writeByte(ShardProtocol.OK);
+                    out.writeLong(rows.isEmpty() ? 0 : rows.lastKey());
+                }
+                default -> throw new IllegalArgumentException("Неизвестная операция шарда: " + operation);
+            }
+        }
+
+        // Та же проверка версии, что и в локальных хранилищах, выполняется атомарно на шарде
+        private void update(DataInputStream in, DataOutputStream out) throws IOException {
+            Long expected = in.readBoolean() ? in.readLong() : null;
+            T replacement = entity.read(in);
+            try {
+                T updated = rows.computeIfPresent(entity.id().applyAsLong(replacement), (id, current) ->
+                        entity.withVersion().apply(replacement, EntityVersions.next(entity.name(), id,
+                                entity.version().apply(current), expected)));
+                out.writeByte(updated == null ? ShardProtocol.NOT_FOUND : ShardProtocol.FOUND);
+                if (updated != null) {
+                    entity.write(out, updated);
+                }
+            } catch (ConflictException e) {
+                out.writeByte(ShardProtocol.CONFLICT);
+                out.writeUTF(e.getMessage());
+            }
+        }
+
+        private void writeList(DataOutputStream out, List<T> list) throws IOException {
+            out.writeByte(ShardProtocol.OK);
+            out.writeInt(list.size());
+            for (T row : list) {
+                entity.write(out, row);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Фильмы лежат на шардах, id выдаются здесь, чтобы шардам не нужно было договариваться между собой
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.films", havingValue = "sharded")
+public class ShardedFilmStorage implements FilmStorage {
+    private final ShardCluster cluster;
+    private final IdGenerator idGenerator;
+    // Число записей ведётся локально, чтобы опрос метрик не обходил все шарды
+    private final AtomicLong count;
+
+    public ShardedFilmStorage(final ShardCluster cluster, final IdGenerator idGenerator) {
+        this.cluster = cluster;
+        this.idGenerator = idGenerator;
+        // Шарды переживают перезапуск приложения, поэтому продолжаем нумерацию после их данных
+        idGenerator.films().reseed(cluster.maxId(ShardEntity.FILM));
+        this.count = new AtomicLong(cluster.countAfter(ShardEntity.FILM, 0));
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return cluster.findAfter(ShardEntity.FILM, 0);
+    }
+
+    @Override
+    public Collection<Film> findAfter(final long afterId) {
+        return cluster.findAfter(ShardEntity.FILM, afterId);
+    }
+
+    @Override
+    public Optional<Film> findById(final long id) {
+        return cluster.get(ShardEntity.FILM, id);
+    }
+
+    @Override
+    public List<Film> findByIds(final List<Long> ids) {
+        return cluster.getMany(ShardEntity.FILM, ids);
+    }
+
+    @Override
+    public long count() {
+        return count.get();
+    }
+
+    @Override
+    public Film add(final Film film) {
+        if (film.getId() == null) {
+            film.setId(idGenerator.films().next());
+        }
+        film.setVersion(EntityVersions.INITIAL);
+        cluster.putAll(ShardEntity.FILM, List.of(film));
+        count.incrementAndGet();
+        return film;
+    }
+
+    @Override
+    public Optional<Film> update(final Film film) {
+        return cluster.update(ShardEntity.FILM, film);
+    }
+
+    @Override
+    public List<Film> addAll(final List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        assignIds(films);
+        for (Film film : films) {
+            film.setVersion(EntityVersions.INITIAL);
+        }
+        cluster.putAll(ShardEntity.FILM, films);
+        count.addAndGet(films.size());
+        return films;
+    }
+
+    @Override
+    public List<Optional<Film>> updateAll(final List<Film> films) {
+        List<Optional<Film>> updated = new ArrayList<>(films.size());
+        for (Film film : films) {
+            updated.add(update(film));
+        }
+        return updated;
+    }
+
+    @Override
+    public void restore(final Film film) {
+        if (film.getVersion() == null) {
+            film.setVersion(EntityVersions.INITIAL);
+        }
+        boolean existed = cluster.get(ShardEntity.FILM, film.getId()).isPresent();
+        cluster.putAll(ShardEntity.FILM, List.of(film));
+        if (!existed) {
+            count.incrementAndGet();
+        }
+        idGenerator.films().reseed(film.getId());
+    }
+
+    // Пакет приходит либо целиком с id, выданными заранее, либо целиком без них
+    private void assignIds(final List<Film> films) {
+        if (films.get(0).getId() == null) {
+            long id = idGenerator.films().nextBlock(films.size()).first();
+            for (Film film : films) {
+                film.setId(id++);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Пользователи лежат на шардах, id выдаются здесь, чтобы шардам не нужно было договариваться между собой
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.users", havingValue = "sharded")
+public class ShardedUserStorage implements UserStorage {
+    private final ShardCluster cluster;
+    private final IdGenerator idGenerator;
+    // Число записей ведётся локально, чтобы опрос метрик не обходил все шарды
+    private final AtomicLong count;
+
+    public ShardedUserStorage(final ShardCluster cluster, final IdGenerator idGenerator) {
+        this.cluster = cluster;
+        this.idGenerator = idGenerator;
+        // Шарды переживают перезапуск приложения, поэтому продолжаем нумерацию после их данных
+        idGenerator.users().reseed(cluster.maxId(ShardEntity.USER));
+        this.count = new AtomicLong(cluster.countAfter(ShardEntity.USER, 0));
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return cluster.findAfter(ShardEntity.USER, 0);
+    }
+
+    @Override
+    public Collection<User> findAfter(final long afterId) {
+        return cluster.findAfter(ShardEntity.USER, afterId);
+    }
+
+    @Override
+    public Optional<User> findById(final long id) {
+        return cluster.get(ShardEntity.USER, id);
+    }
+
+    @Override
+    public List<User> findByIds(final List<Long> ids) {
+        return cluster.getMany(ShardEntity.USER, ids);
+    }
+
+    @Override
+    public long count() {
+        return count.get();
+    }
+
+    @Override
+    public User add(final User user) {
+        if (user.getId() == null) {
+            user.setId(idGenerator.users().next());
+        }
+        user.setVersion(EntityVersions.INITIAL);
+        cluster.putAll(ShardEntity.USER, List.of(user));
+        count.incrementAndGet();
+        return user;
+    }
+
+    @Override
+    public Optional<User> update(final User user) {
+        return cluster.update(ShardEntity.USER, user);
+    }
+
+    @Override
+    public List<User> addAll(final List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        assignIds(users);
+        for (User user : users) {
+            user.setVersion(EntityVersions.INITIAL);
+        }
+        cluster.putAll(ShardEntity.USER, users);
+        count.addAndGet(users.size());
+        return users;
+    }
+
+    @Override
+    public List<Optional<User>> updateAll(final List<User> users) {
+        List<Optional<User>> updated = new ArrayList<>(users.size());
+        for (User user : users) {
+            updated.add(update(user));
+        }
+        return updated;
+    }
+
+    @Override
+    public void restore(final User user) {
+        if (user.getVersion() == null) {
+            user.setVersion(EntityVersions.INITIAL);
+        }
+        boolean existed = cluster.get(ShardEntity.USER, user.getId()).isPresent();
+        cluster.putAll(ShardEntity.USER, List.of(user));
+        if (!existed) {
+            count.incrementAndGet();
+        }
+        idGenerator.users().reseed(user.getId());
+    }
+
+    // Пакет приходит либо целиком с id, выданными заранее, либо целиком без них
+    private void assignIds(final List<User> users) {
+        if (users.get(0).getId() == null) {
+            long id = idGenerator.users().nextBlock(users.size()).first();
+            for (User user : users) {
+                user.setId(id++);
+            }
+        }
+    }
+}
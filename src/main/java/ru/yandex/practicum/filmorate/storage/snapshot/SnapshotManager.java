@@ -0,0 +1,261 @@
+package ru.yandex.practicum.filmorate.storage.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EntityCodec;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.wal.WriteAheadLog;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Двоичный снимок хранилищ. Формат: [int MAGIC][int VERSION][long сегмент журнала],
+// затем блоки [byte вид][int количество][int длина][данные], блок вида END завершает файл.
+// Снимок снимается без остановки записи: сначала журнал переключается на новый сегмент,
+// затем обходятся хранилища. Переключение ждёт, пока применятся изменения, уже записанные в прежние
+// сегменты, поэтому их удаление после снимка ничего не теряет. Изменения, попавшие в обход частично,
+// повторяются из журнала начиная с нового сегмента, и снимок вместе с журналом даёт согласованное состояние.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.snapshot.enabled", havingValue = "true")
+public class SnapshotManager {
+    private static final int MAGIC = 0x464C4D53;
+    private static final int VERSION = 2;
+    // Снимки первой версии содержат фильмы и пользователей без версий сущностей
+    private static final int VERSION_WITHOUT_ENTITY_VERSIONS = 1;
+    private static final byte END = 0;
+    private static final byte FILMS = 1;
+    private static final byte USERS = 2;
+    private static final byte FRIENDS = 3;
+    private static final byte LIKES = 4;
+    private static final int CHUNK_HEADER_SIZE = 1 + Integer.BYTES + Integer.BYTES;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FriendStorage friendStorage;
+    private final LikeStorage likeStorage;
+    private final WriteAheadLog writeAheadLog;
+    private final Path file;
+    private final int chunkSize;
+
+    public SnapshotManager(final FilmStorage filmStorage,
+                           final UserStorage userStorage,
+                           final FriendStorage friendStorage,
+                           final LikeStorage likeStorage,
+                           final WriteAheadLog writeAheadLog,
+                           @Value("${filmorate.snapshot.file:data/snapshot.bin}") final Path file,
+                           @Value("${filmorate.snapshot.chunk-size:65536}") final int chunkSize) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.friendStorage = friendStorage;
+        this.likeStorage = likeStorage;
+        this.writeAheadLog = writeAheadLog;
+        this.file = file;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.snapshot.interval:PT10M}",
+            fixedDelayString = "${filmorate.snapshot.interval:PT10M}")
+    public void takeSnapshot() throws IOException {
+        long started = System.nanoTime();
+        long walSegment = writeAheadLog.checkpoint();
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "snapshot", ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(walSegment);
+            writeChunks(out, FILMS, filmStorage.findAll(), (data, film) -> EntityCodec.writeFilm(data, film));
+            writeChunks(out, USERS, userStorage.findAll(), (data, user) -> EntityCodec.writeUser(data, user));
+            writeChunks(out, FRIENDS, friendLists(), (data, list) -> writeIdList(data, list.userId(), list.friendIds()));
+            writeChunks(out, LIKES, likeLists(), (data, list) -> writeIdList(data, list.filmId(), list.userIds()));
+            out.writeByte(END);
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writeAheadLog.truncateBefore(walSegment);
+        log.info("Снимок записан в {} за {} мс", file, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Загружает снимок в хранилища и возвращает сегмент журнала, с которого нужно продолжить восстановление
+    public long restore() {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, Integer.BYTES * 2 + Long.BYTES);
+            int magic = header.getInt();
+            int version = header.getInt();
+            if (magic != MAGIC || version != VERSION && version != VERSION_WITHOUT_ENTITY_VERSIONS) {
+                throw new IllegalStateException("Неподдерживаемый формат снимка: " + file);
+            }
+            long walSegment = header.getLong();
+            List<Chunk> chunks = readChunkIndex(channel, header.capacity());
+            // Блоки декодируются параллельно, а применяются по порядку: так колоночное
+            // хранилище получает id по возрастанию и вставляет их в конец
+            chunks.parallelStream()
+                    .map(chunk -> decode(channel, chunk, version == VERSION))
+                    .forEachOrdered(this::apply);
+            log.info("Из снимка {} загружено блоков: {}", file, chunks.size());
+            return walSegment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> void writeChunks(DataOutputStream out, byte kind, Iterable<T> items, EntityWriter<T> writer)
+            throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+        DataOutputStream data = new DataOutputStream(buffer);
+        int count = 0;
+        for (T item : items) {
+            writer.write(data, item);
+            if (++count == chunkSize) {
+                writeChunk(out, kind, count, buffer);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            writeChunk(out, kind, count, buffer);
+        }
+    }
+
+    private void writeChunk(DataOutputStream out, byte kind, int count, ByteArrayOutputStream buffer)
+            throws IOException {
+        out.writeByte(kind);
+        out.writeInt(count);
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+        buffer.reset();
+    }
+
+    private List<Chunk> readChunkIndex(FileChannel channel, long position) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        while (true) {
+            byte kind = readFully(channel, position, 1).get();
+            if (kind == END) {
+                return chunks;
+            }
+            ByteBuffer header = readFully(channel, position + 1, CHUNK_HEADER_SIZE - 1);
+            int count = header.getInt();
+            int length = header.getInt();
+            chunks.add(new Chunk(kind, count, position + CHUNK_HEADER_SIZE, length));
+            position += CHUNK_HEADER_SIZE + length;
+        }
+    }
+
+    private DecodedChunk decode(FileChannel channel, Chunk chunk, boolean withVersions) {
+        try {
+            ByteBuffer bytes = readFully(channel, chunk.position(), chunk.length());
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.array()));
+            List<Object> entities = new ArrayList<>(chunk.count());
+            for (int i = 0; i < chunk.count(); i++) {
+                entities.add(switch (chunk.kind()) {
+                    case FILMS -> EntityCodec.readFilm(in, withVersions);
+                    case USERS -> EntityCodec.readUser(in, withVersions);
+                    case FRIENDS -> new FriendList(in.readLong(), readIds(in));
+                    case LIKES -> new LikeList(in.readLong(), readIds(in));
+                    default -> throw new IllegalStateException("Неизвестный вид блока снимка: " + chunk.kind());
+                });
+            }
+            return new DecodedChunk(chunk.kind(), entities);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void apply(DecodedChunk chunk) {
+        for (Object entity : chunk.entities()) {
+            switch (entity) {
+                case Film film -> filmStorage.restore(film);
+                case User user -> userStorage.restore(user);
+                case FriendList friendList -> friendStorage.restore(friendList.userId(), friendList.friendIds());
+                case LikeList likeList -> likeStorage.restore(likeList.filmId(), likeList.userIds());
+                default -> throw new IllegalStateException("Неизвестная запись снимка: " + entity);
+            }
+        }
+    }
+
+    private List<FriendList> friendLists() {
+        List<FriendList> friendLists = new ArrayList<>();
+        friendStorage.forEachUser((userId, friendIds) -> friendLists.add(new FriendList(userId, friendIds)));
+        return friendLists;
+    }
+
+    private List<LikeList> likeLists() {
+        List<LikeList> likeLists = new ArrayList<>();
+        likeStorage.forEachFilm((filmId, userIds) -> likeLists.add(new LikeList(filmId, userIds)));
+        return likeLists;
+    }
+
+    private static void writeIdList(DataOutputStream out, long ownerId, long[] ids) throws IOException {
+        out.writeLong(ownerId);
+        out.writeInt(ids.length);
+        for (long id : ids) {
+            out.writeLong(id);
+        }
+    }
+
+    private static long[] readIds(DataInputStream in) throws IOException {
+        long[] ids = new long[in.readInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = in.readLong();
+        }
+        return ids;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Снимок обрезан");
+            }
+        }
+        return buffer.flip();
+    }
+
+    @FunctionalInterface
+    private interface EntityWriter<T> {
+        void write(DataOutputStream out, T entity) throws IOException;
+    }
+
+    private record Chunk(byte kind, int count, long position, int length) {
+    }
+
+    private record FriendList(long userId, long[] friendIds) {
+    }
+
+    private record LikeList(long filmId, long[] userIds) {
+    }
+
+    private record DecodedChunk(byte kind, List<Object> entities) {
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.wal.enabled", havingValue = "false", matchIfMissing = true)
+public class DisabledWriteAheadLog implements WriteAheadLog {
+    private static final CompletableFuture<Void> WRITTEN = CompletableFuture.completedFuture(null);
+    // Без журнала нет сегментов, которые снимок мог бы удалить раньше времени, поэтому ждать нечего
+    private static final Lock NOT_LOCKED = new Lock() {
+        @Override
+        public void lock() {
+        }
+
+        @Override
+        public void lockInterruptibly() {
+        }
+
+        @Override
+        public boolean tryLock() {
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(final long time, final TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    @Override
+    public CompletableFuture<Void> append(final WalRecordType type, final byte[] payload) {
+        return WRITTEN;
+    }
+
+    @Override
+    public Lock applyLock() {
+        return NOT_LOCKED;
+    }
+
+    @Override
+    public long checkpoint() {
+        return 0;
+    }
+
+    @Override
+    public int replay(final long fromSegment, final WalConsumer consumer) {
+        return 0;
+    }
+
+    @Override
+    public void truncateBefore(final long segment) {
+    }
+}
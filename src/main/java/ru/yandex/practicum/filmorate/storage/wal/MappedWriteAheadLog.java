@@ -0,0 +1,304 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Журнал упреждающей записи в отображаемых в память сегментах.
+// Формат записи: [int длина данных][byte тип][данные][int CRC32C типа и данных];
+// нулевая длина означает конец сегмента. Записи от параллельных запросов
+// собираются в пакет в пределах commit-window и сбрасываются на диск одним force().
+// Файл сегмента создаётся при первой записи в него, поэтому перезапуск без изменений не оставляет пустых сегментов.
+// Контрольная точка берёт блокировку применения исключительно: изменение, уже записанное в сегмент,
+// но ещё не применённое, не может пропасть из снимка вместе с удалёнными после него сегментами.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.wal.enabled", havingValue = "true")
+public class MappedWriteAheadLog implements WriteAheadLog {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d{8})\\.log");
+    private static final int HEADER_SIZE = Integer.BYTES + 1;
+    private static final int TRAILER_SIZE = Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long commitWindowNanos;
+    private final int maxBatch;
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+
+    private final Lock segmentLock = new ReentrantLock();
+    private final ReadWriteLock applying = new ReentrantReadWriteLock();
+    // Запись в очередь идёт под блокировкой чтения, закрытие — под блокировкой записи: после close()
+    // в очередь ничего не попадает, а всё попавшее раньше писатель запишет или завершит ошибкой
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private final long firstWritableSegment;
+
+    private volatile boolean running = true;
+    private long segmentIndex;
+    // null, пока в текущий сегмент ничего не записано
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    public MappedWriteAheadLog(@Value("${filmorate.wal.directory:data/wal}") final Path directory,
+                               @Value("${filmorate.wal.segment-size:67108864}") final int segmentSize,
+                               @Value("${filmorate.wal.commit-window:0ms}") final Duration commitWindow,
+                               @Value("${filmorate.wal.max-batch:1024}") final int maxBatch) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.commitWindowNanos = commitWindow.toNanos();
+        this.maxBatch = maxBatch;
+        Files.createDirectories(directory);
+        // Новые записи всегда идут в свежий сегмент, старые только читаются при восстановлении
+        segmentIndex = existingSegments().stream().mapToLong(MappedWriteAheadLog::indexOf).max().orElse(0) + 1;
+        firstWritableSegment = segmentIndex;
+        committer = new Thread(this::commitLoop, "wal-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @Override
+    public CompletableFuture<Void> append(final WalRecordType type, final byte[] payload) {
+        if (payload.length + HEADER_SIZE + TRAILER_SIZE + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Запись журнала больше сегмента: " + payload.length + " байт");
+        }
+        Lock open = closing.readLock();
+        open.lock();
+        try {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Журнал закрыт"));
+            }
+            PendingRecord record = new PendingRecord(type, payload, new CompletableFuture<>());
+            queue.add(record);
+            return record.written();
+        } finally {
+            open.unlock();
+        }
+    }
+
+    @Override
+    public Lock applyLock() {
+        return applying.readLock();
+    }
+
+    @Override
+    public long checkpoint() {
+        Lock exclusive = applying.writeLock();
+        exclusive.lock();
+        segmentLock.lock();
+        try {
+            if (segment != null) {
+                segment.force();
+                closeSegment();
+                segmentIndex++;
+            }
+            return segmentIndex;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            segmentLock.unlock();
+            exclusive.unlock();
+        }
+    }
+
+    @Override
+    public int replay(final long fromSegment, final WalConsumer consumer) {
+        int records = 0;
+        for (Path path : existingSegments()) {
+            long index = indexOf(path);
+            if (index >= fromSegment && index < firstWritableSegment) {
+                records += replaySegment(path, consumer);
+            }
+        }
+        log.info("Из журнала восстановлено записей: {}", records);
+        return records;
+    }
+
+    @Override
+    public void truncateBefore(final long segment) {
+        for (Path path : existingSegments()) {
+            if (indexOf(path) < segment) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Не удалось удалить сегмент журнала {}", path, e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        Lock exclusive = closing.writeLock();
+        exclusive.lock();
+        try {
+            running = false;
+        } finally {
+            exclusive.unlock();
+        }
+        committer.interrupt();
+        committer.join();
+        segmentLock.lock();
+        try {
+            closeSegment();
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    private void commitLoop() {
+        List<PendingRecord> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                queue.drainTo(batch);
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            segmentLock.lock();
+            try {
+                writeBatch(batch);
+                batch.forEach(record -> record.written().complete(null));
+            } catch (IOException | RuntimeException e) {
+                log.error("Не удалось записать пакет журнала из {} записей", batch.size(), e);
+                batch.forEach(record -> record.written().completeExceptionally(e));
+            } finally {
+                segmentLock.unlock();
+            }
+            batch.clear();
+        }
+        queue.drainTo(batch);
+        batch.forEach(record -> record.written().completeExceptionally(new IllegalStateException("Журнал закрыт")));
+    }
+
+    private void collectBatch(final List<PendingRecord> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + commitWindowNanos;
+        while (batch.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            PendingRecord next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeBatch(final List<PendingRecord> batch) throws IOException {
+        if (segment == null) {
+            openSegment();
+        }
+        int dirtyFrom = segment.position();
+        for (PendingRecord record : batch) {
+            int size = HEADER_SIZE + record.payload().length + TRAILER_SIZE;
+            // в конце сегмента должно остаться место под нулевой маркер длины
+            if (segment.remaining() < size + Integer.BYTES) {
+                segment.force(dirtyFrom, segment.position() - dirtyFrom);
+                segmentIndex++;
+                openSegment();
+                dirtyFrom = 0;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(record.type().ordinal());
+            crc.update(record.payload());
+            segment.putInt(record.payload().length)
+                    .put((byte) record.type().ordinal())
+                    .put(record.payload())
+                    .putInt((int) crc.getValue());
+        }
+        segment.force(dirtyFrom, segment.position() - dirtyFrom);
+    }
+
+    private void openSegment() throws IOException {
+        closeSegment();
+        Path path = directory.resolve(String.format("wal-%08d.log", segmentIndex));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            segment = null;
+        }
+    }
+
+    private int replaySegment(final Path path, final WalConsumer consumer) {
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            int records = 0;
+            while (buffer.remaining() >= HEADER_SIZE + TRAILER_SIZE) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining() - 1 - TRAILER_SIZE) {
+                    break;
+                }
+                int typeCode = buffer.get();
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                CRC32C crc = new CRC32C();
+                crc.update(typeCode);
+                crc.update(payload);
+                if (buffer.getInt() != (int) crc.getValue()) {
+                    // оборванная запись в хвосте сегмента после сбоя
+                    log.warn("Повреждённая запись журнала в {}, восстановление сегмента остановлено", path);
+                    break;
+                }
+                consumer.accept(WalRecordType.fromCode(typeCode), payload);
+                records++;
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> existingSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long indexOf(final Path segmentPath) {
+        Matcher matcher = SEGMENT_NAME.matcher(segmentPath.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Не сегмент журнала: " + segmentPath);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private record PendingRecord(WalRecordType type, byte[] payload, CompletableFuture<Void> written) {
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+public enum WalRecordType {
+    FILM_CREATED,
+    FILM_UPDATED,
+    USER_CREATED,
+    USER_UPDATED,
+    FRIENDSHIP_ADDED,
+    FRIENDSHIP_REMOVED,
+    LIKE_ADDED,
+    LIKE_REMOVED;
+
+    private static final WalRecordType[] VALUES = values();
+
+    public static WalRecordType fromCode(final int code) {
+        if (code < 0 || code >= VALUES.length) {
+            throw new IllegalArgumentException("Неизвестный тип записи журнала: " + code);
+        }
+        return VALUES[code];
+    }
+}
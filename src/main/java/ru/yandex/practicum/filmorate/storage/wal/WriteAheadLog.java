@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+
+public interface WriteAheadLog {
+    // Ставит запись в очередь журнала; future завершается, когда запись сброшена на диск
+    CompletableFuture<Void> append(WalRecordType type, byte[] payload);
+
+    // Держится от append до применения изменения к хранилищу. Блокировки разных изменений
+    // не мешают друг другу, а checkpoint() ждёт, пока все удерживающие её отпустят
+    Lock applyLock();
+
+    // Переключает запись на новый сегмент и возвращает его номер — отметку для снимка.
+    // К возврату всё, что записано в прежние сегменты, уже применено к хранилищам
+    long checkpoint();
+
+    // Повторяет записи сегментов, заполненных до запуска, и возвращает их число
+    int replay(long fromSegment, WalConsumer consumer);
+
+    // Удаляет сегменты, полностью покрытые снимком
+    void truncateBefore(long segment);
+
+    @FunctionalInterface
+    interface WalConsumer {
+        void accept(WalRecordType type, byte[] payload);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientRateLimiterTest {
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    @DisplayName("Клиент получает запас burst, затем одно разрешение на интервал")
+    void tryAcquire_ShouldAllowBurstThenRate() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, Duration.ofMinutes(1), now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("importer"), "Запрос в пределах запаса должен пройти");
+        }
+        assertFalse(limiter.tryAcquire("importer"), "Запрос сверх запаса должен быть отклонён");
+        assertTrue(limiter.tryAcquire("reader"), "Лимит другого клиента не должен зависеть от первого");
+
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+        assertTrue(limiter.tryAcquire("importer"), "Через интервал должно появиться одно разрешение");
+        assertFalse(limiter.tryAcquire("importer"), "Второе разрешение за интервал не положено");
+    }
+
+    @Test
+    @DisplayName("Простаивающие клиенты удаляются, новые сверх предела делят общую корзину")
+    void evictIdle_ShouldForgetIdleClients() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 1, 2, Duration.ofSeconds(1), now::get);
+
+        assertTrue(limiter.tryAcquire("first"), "Первый клиент должен пройти");
+        assertTrue(limiter.tryAcquire("second"), "Второй клиент должен пройти");
+        assertTrue(limiter.tryAcquire("third"), "Третий клиент попадает в общую корзину");
+        assertFalse(limiter.tryAcquire("fourth"), "Общая корзина уже израсходована третьим клиентом");
+        assertEquals(3, limiter.trackedClients(), "Должны быть две корзины клиентов и общая");
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        limiter.evictIdle();
+        assertEquals(0, limiter.trackedClients(), "Простаивающие корзины должны быть удалены");
+        assertTrue(limiter.tryAcquire("fourth"), "После очистки клиент получает свою корзину");
+    }
+
+    @Test
+    @DisplayName("Поток одноразовых клиентов не отправляет следующих клиентов в общую корзину")
+    void tryAcquire_ShouldReclaimRefilledBucketsWhenFull() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 1, 100, Duration.ofMinutes(1), now::get);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire("spoofed-" + i), "Одноразовый клиент укладывается в свой запас");
+        }
+        // Одноразовым корзинам хватает интервала, чтобы наполниться; чистка по простою ещё не прошла
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+
+        assertTrue(limiter.tryAcquire("interactive"), "Клиент должен пройти");
+        assertFalse(limiter.tryAcquire("interactive"), "Клиент должен получить свою корзину с запасом 1");
+        assertTrue(limiter.tryAcquire("another"), "Другой клиент не должен делить корзину с первым");
+        assertEquals(2, limiter.trackedClients(), "Наполнившиеся корзины должны быть убраны");
+    }
+}
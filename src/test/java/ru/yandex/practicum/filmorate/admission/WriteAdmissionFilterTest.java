@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WriteAdmissionFilterTest {
+    private static final String PROXY = "10.0.0.1";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Запись сверх лимита клиента отклоняется с 429 до контроллера, чтение не ограничено")
+    void doFilter_ShouldRejectWritesOverClientLimit() throws Exception {
+        WriteAdmissionFilter filter = filter(new ClientRateLimiter(1, 1, 100, Duration.ofMinutes(1)), 16);
+
+        MockFilterChain accepted = new MockFilterChain();
+        filter.doFilter(request("POST", "importer"), new MockHttpServletResponse(), accepted);
+        assertNotNull(accepted.getRequest(), "Первый запрос должен дойти до контроллера");
+
+        MockFilterChain rejected = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "importer"), response, rejected);
+        assertNull(rejected.getRequest(), "Отклонённый запрос не должен дойти до контроллера");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus(), "Ожидался статус 429");
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER), "Ожидался заголовок Retry-After");
+
+        MockFilterChain read = new MockFilterChain();
+        filter.doFilter(request("GET", "importer"), new MockHttpServletResponse(), read);
+        assertNotNull(read.getRequest(), "Чтение не должно ограничиваться");
+        assertEquals(1.0, registry.get("filmorate.admission.rejected").tag("reason", "rate_limit").counter().count(),
+                "Отказ должен быть посчитан");
+    }
+
+    @Test
+    @DisplayName("Запись сверх предела одновременных запросов отклоняется с 429")
+    void doFilter_ShouldShedWritesOverConcurrencyLimit() throws Exception {
+        WriteAdmissionFilter filter = filter(new ClientRateLimiter(1000, 1000, 100, Duration.ofMinutes(1)), 1);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        // Пока первый запрос выполняется, приходит второй
+        FilterChain slowChain = (request, response) -> {
+            assertEquals(1, filter.inFlightWrites(), "Первый запрос должен занимать разрешение");
+            filter.doFilter(request("PUT", "other"), nested, new MockFilterChain());
+        };
+
+        filter.doFilter(request("PUT", "importer"), new MockHttpServletResponse(), slowChain);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), nested.getStatus(), "Второй запрос должен быть отклонён");
+        assertEquals(0, filter.inFlightWrites(), "Разрешение должно вернуться после ответа");
+        assertEquals(1.0, registry.get("filmorate.admission.rejected").tag("reason", "concurrency").counter().count(),
+                "Отказ должен быть посчитан");
+    }
+
+    @Test
+    @DisplayName("Заголовок клиента от недоверенного адреса игнорируется: смена значения не даёт новый лимит")
+    void doFilter_ShouldIgnoreClientHeaderFromUntrustedAddress() throws Exception {
+        WriteAdmissionFilter filter = new WriteAdmissionFilter(new ClientRateLimiter(1, 1, 100, Duration.ofMinutes(1)),
+                new ObjectMapper().findAndRegisterModules(), registry, "X-Client-Id", List.of(PROXY), 16);
+
+        MockFilterChain accepted = new MockFilterChain();
+        filter.doFilter(request("POST", "rotated-1", "203.0.113.7"), new MockHttpServletResponse(), accepted);
+        assertNotNull(accepted.getRequest(), "Первый запрос должен дойти до контроллера");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "rotated-2", "203.0.113.7"), response, new MockFilterChain());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus(),
+                "Новое значение заголовка не должно давать новую корзину");
+
+        MockFilterChain otherAddress = new MockFilterChain();
+        filter.doFilter(request("POST", "rotated-2", "203.0.113.8"), new MockHttpServletResponse(), otherAddress);
+        assertNotNull(otherAddress.getRequest(), "Клиент с другого адреса должен иметь свой лимит");
+    }
+
+    private WriteAdmissionFilter filter(ClientRateLimiter limiter, int maxConcurrentWrites) {
+        return new WriteAdmissionFilter(limiter, new ObjectMapper().findAndRegisterModules(), registry,
+                "X-Client-Id", List.of(PROXY), maxConcurrentWrites);
+    }
+
+    // Запрос через доверенный прокси: клиента определяет заголовок
+    private static MockHttpServletRequest request(String method, String client) {
+        return request(method, client, PROXY);
+    }
+
+    private static MockHttpServletRequest request(String method, String client, String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/films");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+}
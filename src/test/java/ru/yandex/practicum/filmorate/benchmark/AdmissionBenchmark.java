@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.yandex.practicum.filmorate.admission.ClientRateLimiter;
+import ru.yandex.practicum.filmorate.admission.WriteAdmissionFilter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Накладные расходы допуска записей на один запрос: лимитер для одного и для 10 000 клиентов
+// и фильтр целиком против пустой цепочки. Лимит задан так, чтобы запросы не отклонялись
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdmissionBenchmark {
+    private static final int CLIENTS = 10_000;
+
+    ClientRateLimiter limiter;
+    WriteAdmissionFilter filter;
+    String[] clients;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+    FilterChain chain;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = new ClientRateLimiter(1_000_000_000, 1_000_000, CLIENTS * 2, Duration.ofMinutes(1));
+        filter = new WriteAdmissionFilter(limiter, new ObjectMapper(), new SimpleMeterRegistry(),
+                "X-Client-Id", List.of("127.0.0.1"), 512);
+        clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "client-" + i;
+        }
+        request = new MockHttpServletRequest("POST", "/films");
+        request.addHeader("X-Client-Id", "importer");
+        response = new MockHttpServletResponse();
+        chain = (servletRequest, servletResponse) -> {
+        };
+    }
+
+    @Benchmark
+    public boolean limiterOneClient() {
+        return limiter.tryAcquire("importer");
+    }
+
+    @Benchmark
+    public boolean limiterManyClients() {
+        return limiter.tryAcquire(clients[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    public void chainOnly() throws Exception {
+        chain.doFilter(request, response);
+    }
+
+    @Benchmark
+    public void filterAndChain() throws Exception {
+        // OncePerRequestFilter помечает запрос атрибутом, его нужно снимать между вызовами
+        request.clearAttributes();
+        filter.doFilter(request, response, chain);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AdmissionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.storage.SortedLongArrays;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Пересечение списков друзей: отсортированные long[] против HashSet<Long>
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommonFriendsBenchmark {
+
+    @Param({"100", "10000"})
+    int otherDegree;
+
+    long[] friends;
+    long[] otherFriends;
+    Set<Long> friendSet;
+    Set<Long> otherFriendSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        friends = random.longs(10_000, 1, 1_000_000).sorted().distinct().toArray();
+        otherFriends = random.longs(otherDegree, 1, 1_000_000).sorted().distinct().toArray();
+        friendSet = new HashSet<>();
+        for (long id : friends) {
+            friendSet.add(id);
+        }
+        otherFriendSet = new HashSet<>();
+        for (long id : otherFriends) {
+            otherFriendSet.add(id);
+        }
+    }
+
+    @Benchmark
+    public long[] sortedArrays() {
+        return SortedLongArrays.intersect(friends, otherFriends);
+    }
+
+    @Benchmark
+    public Set<Long> hashSets() {
+        Set<Long> common = new HashSet<>(friendSet);
+        common.retainAll(otherFriendSet);
+        return common;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CommonFriendsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
+import ru.yandex.practicum.filmorate.controller.ResponseCache;
+import ru.yandex.practicum.filmorate.exception.GlobalExceptionHandler;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+import ru.yandex.practicum.filmorate.storage.index.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmTextIndex;
+import ru.yandex.practicum.filmorate.storage.wal.DisabledWriteAheadLog;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Отклонённый запрос от контроллера до байтов ответа, без HTTP. Запускать с -prof gc:
+// gc.alloc.rate.norm — байты на отказ. legacyReject повторяет прежний путь
+// (исключение со стеком, HashMap, LocalDateTime.now()) для сравнения
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+    FilmController controller;
+    GlobalExceptionHandler handler;
+    ObjectMapper objectMapper;
+    Film tooEarlyFilm;
+    Film unknownFilm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+        IdGenerator ids = new IdGenerator();
+        FilmRangeIndex rangeIndex = new FilmRangeIndex();
+        FilmTextIndex textIndex = new FilmTextIndex();
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(ids), new InMemoryUserStorage(ids),
+                new InMemoryLikeStorage(), ids, new DisabledWriteAheadLog(), new ChangeEventBuffer(1024),
+                List.of(rangeIndex, textIndex), rangeIndex, textIndex);
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        controller = new FilmController(filmService, new NdjsonWriter(objectMapper),
+                new ResponseCache(objectMapper, DataSize.ofMegabytes(1), 1024),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        // Одно предупреждение в секунду: в консоль JMH попадает видимый, но не мешающий поток
+        handler = new GlobalExceptionHandler(new SimpleMeterRegistry(), 1, Duration.ofSeconds(1));
+        tooEarlyFilm = FilmControllerBenchmark.film(null, 0);
+        tooEarlyFilm.setReleaseDate(LocalDate.of(1800, 1, 1));
+        unknownFilm = FilmControllerBenchmark.film(1_000_000L, 0);
+    }
+
+    @Benchmark
+    public byte[] rejectReleaseDate() throws Exception {
+        try {
+            controller.add(tooEarlyFilm);
+            throw new IllegalStateException();
+        } catch (ValidationException e) {
+            return objectMapper.writeValueAsBytes(handler.handleValidationException(e).getBody());
+        }
+    }
+
+    @Benchmark
+    public byte[] rejectUnknownFilm() throws Exception {
+        try {
+            controller.update(unknownFilm);
+            throw new IllegalStateException();
+        } catch (NotFoundException e) {
+            return objectMapper.writeValueAsBytes(handler.handleNotFoundException(e).getBody());
+        }
+    }
+
+    @Benchmark
+    public byte[] legacyReject() throws Exception {
+        try {
+            if (tooEarlyFilm.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
+                throw new RuntimeException("Дата релиза должна быть не раньше 28 декабря 1895 года");
+            }
+            throw new IllegalStateException();
+        } catch (RuntimeException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("timestamp", LocalDateTime.now());
+            body.put("status", 400);
+            body.put("error", e.getMessage());
+            return objectMapper.writeValueAsBytes(body);
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ErrorPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
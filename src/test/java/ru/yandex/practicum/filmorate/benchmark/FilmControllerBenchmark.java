@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
+import ru.yandex.practicum.filmorate.controller.ResponseCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+import ru.yandex.practicum.filmorate.storage.index.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmTextIndex;
+import ru.yandex.practicum.filmorate.storage.wal.DisabledWriteAheadLog;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Добавление и обновление через FilmController со всеми индексами, без HTTP и без журнала.
+// Bean Validation здесь не выполняется (её запускает Spring), она измеряется в ValidationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilmControllerBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+
+    FilmController controller;
+    long nextUpdate;
+
+    // Каталог пересоздаётся каждую итерацию, чтобы add не раздувал хранилище и индексы без предела
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // Журнал "фильм добавлен" на каждый вызов ушёл бы в консоль JMH и измерялся бы вместо контроллера
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+        IdGenerator ids = new IdGenerator();
+        FilmRangeIndex rangeIndex = new FilmRangeIndex();
+        FilmTextIndex textIndex = new FilmTextIndex();
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(ids), new InMemoryUserStorage(ids),
+                new InMemoryLikeStorage(), ids, new DisabledWriteAheadLog(), new ChangeEventBuffer(1 << 16),
+                List.of(rangeIndex, textIndex), rangeIndex, textIndex);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        controller = new FilmController(filmService, new NdjsonWriter(objectMapper),
+                new ResponseCache(objectMapper, DataSize.ofMegabytes(1), 1024),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            controller.add(film(null, i));
+        }
+        nextUpdate = 0;
+    }
+
+    @Benchmark
+    public Film add() {
+        return controller.add(film(null, (int) nextUpdate++));
+    }
+
+    @Benchmark
+    public Film update() {
+        long id = 1 + nextUpdate++ % CATALOG_SIZE;
+        return controller.update(film(id, (int) nextUpdate));
+    }
+
+    static Film film(Long id, int number) {
+        return Film.builder()
+                .id(id)
+                .name("Фильм номер " + number)
+                .description("Описание фильма " + number % 100)
+                .releaseDate(LocalDate.of(1950, 1, 1).plusDays(number % 20_000))
+                .duration(60 + number % 120)
+                .build();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FilmControllerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
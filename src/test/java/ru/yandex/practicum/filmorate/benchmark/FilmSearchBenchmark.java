@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSearchQuery;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmRangeIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Поиск по диапазону дат (~0.3% каталога) и продолжительности: индекс против полного перебора
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilmSearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    FilmStorage storage;
+    FilmRangeIndex index;
+    FilmSearchQuery query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new InMemoryFilmStorage(new IdGenerator());
+        index = new FilmRangeIndex();
+        for (int i = 0; i < catalogSize; i++) {
+            Film film = storage.add(Film.builder()
+                    .name("Film " + i)
+                    .description("Description")
+                    .releaseDate(LocalDate.of(1900, 1, 1).plusDays(i % 45_000))
+                    .duration(60 + i % 120)
+                    .build());
+            index.index(film);
+        }
+        query = FilmSearchQuery.builder()
+                .releasedFrom(LocalDate.of(1990, 1, 1))
+                .releasedTo(LocalDate.of(1990, 6, 30))
+                .minDuration(90)
+                .maxDuration(120)
+                .limit(Integer.MAX_VALUE)
+                .build();
+    }
+
+    @Benchmark
+    public List<Film> indexed() {
+        return index.search(query).stream()
+                .map(id -> storage.findById(id).orElseThrow())
+                .toList();
+    }
+
+    @Benchmark
+    public List<Film> linearScan() {
+        long from = query.getReleasedFrom().toEpochDay();
+        long to = query.getReleasedTo().toEpochDay();
+        List<Film> result = new ArrayList<>();
+        for (Film film : storage.findAll()) {
+            long day = film.getReleaseDate().toEpochDay();
+            if (day >= from && day <= to
+                    && film.getDuration() >= query.getMinDuration() && film.getDuration() <= query.getMaxDuration()) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FilmSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jol.info.GraphLayout;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.ColumnarFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+// Сравнение объёма кучи, занятого хранилищами фильмов.
+// Меряется дважды: с повторяющимися описаниями, где словарь почти пуст, и с уникальными,
+// где каждое описание стоит колоночному хранилищу отдельной записи в словаре.
+// Запуск: java -cp <test classpath> ru.yandex.practicum.filmorate.benchmark.FilmStorageFootprint [количество]
+public class FilmStorageFootprint {
+    private static final String[] DESCRIPTIONS = {
+            "Драма о взрослении",
+            "Комедия положений",
+            "Documentary about the ocean",
+            "Sci-fi thriller set in the near future"
+    };
+
+    public static void main(final String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.println("Повторяющиеся описания (" + DESCRIPTIONS.length + " варианта)");
+        measure(count, i -> DESCRIPTIONS[i % DESCRIPTIONS.length]);
+
+        System.out.println("Уникальные описания");
+        measure(count, i -> DESCRIPTIONS[i % DESCRIPTIONS.length] + ", выпуск " + i);
+    }
+
+    private static void measure(final int count, final IntFunction<String> description) {
+        Map<Long, Film> hashMap = new HashMap<>();
+        fill(film -> hashMap.put((long) hashMap.size() + 1, film), count, description);
+        report("HashMap<Long, Film>", GraphLayout.parseInstance(hashMap).totalSize(), count);
+
+        FilmStorage inMemory = new InMemoryFilmStorage(new IdGenerator());
+        fill(inMemory::add, count, description);
+        report("InMemoryFilmStorage", GraphLayout.parseInstance(inMemory).totalSize(), count);
+
+        FilmStorage columnar = new ColumnarFilmStorage(new IdGenerator());
+        fill(columnar::add, count, description);
+        report("ColumnarFilmStorage", GraphLayout.parseInstance(columnar).totalSize(), count);
+    }
+
+    private static void fill(final Consumer<Film> sink, final int count, final IntFunction<String> description) {
+        for (int i = 0; i < count; i++) {
+            // new String имитирует десериализацию: у каждого запроса свои экземпляры строк
+            sink.accept(Film.builder()
+                    .name(new String("Film " + (i % 50_000)))
+                    .description(new String(description.apply(i)))
+                    .releaseDate(LocalDate.of(1950 + i % 70, 1 + i % 12, 1 + i % 28))
+                    .duration(60 + i % 120)
+                    .build());
+        }
+    }
+
+    private static void report(final String name, final long bytes, final int count) {
+        System.out.printf("%-22s %,14d bytes  %,8.1f bytes/film%n", name, bytes, (double) bytes / count);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+import ru.yandex.practicum.filmorate.storage.index.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmTextIndex;
+import ru.yandex.practicum.filmorate.storage.wal.DisabledWriteAheadLog;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 64 писателя читают фильм и меняют его продолжительность через FilmService. blindUpdate
+// перезаписывает без проверки версии (чужие изменения теряются), versionedUpdate обновляет
+// с прочитанной версией и повторяет при конфликте. conflicts — число отклонённых попыток
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class FilmUpdateContentionBenchmark {
+    @Param({"16", "1024"})
+    int films;
+
+    InMemoryFilmStorage filmStorage;
+    FilmService filmService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+        IdGenerator ids = new IdGenerator();
+        FilmRangeIndex rangeIndex = new FilmRangeIndex();
+        FilmTextIndex textIndex = new FilmTextIndex();
+        filmStorage = new InMemoryFilmStorage(ids);
+        filmService = new FilmService(filmStorage, new InMemoryUserStorage(ids), new InMemoryLikeStorage(), ids,
+                new DisabledWriteAheadLog(), new ChangeEventBuffer(1 << 16), List.of(rangeIndex, textIndex),
+                rangeIndex, textIndex);
+        for (int i = 0; i < films; i++) {
+            filmService.add(FilmControllerBenchmark.film(null, i));
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Conflicts {
+        public long conflicts;
+    }
+
+    @Benchmark
+    public Film blindUpdate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Film current = filmStorage.findById(1L + random.nextInt(films)).orElseThrow();
+        return filmService.update(current.toBuilder().duration(60 + random.nextInt(120)).version(null).build())
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public Film versionedUpdate(Conflicts counters) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = 1L + random.nextInt(films);
+        while (true) {
+            Film current = filmStorage.findById(id).orElseThrow();
+            try {
+                return filmService.update(current.toBuilder().duration(60 + random.nextInt(120)).build())
+                        .orElseThrow();
+            } catch (ConflictException e) {
+                counters.conflicts++;
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FilmUpdateContentionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
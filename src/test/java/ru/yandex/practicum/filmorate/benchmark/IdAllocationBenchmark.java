@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.storage.IdSequence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdAllocationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int storeSize;
+
+    Map<Long, Object> store;
+    IdSequence sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new HashMap<>();
+        for (long id = 1; id <= storeSize; id++) {
+            store.put(id, Boolean.TRUE);
+        }
+        sequence = new IdSequence();
+        sequence.reseed(storeSize);
+    }
+
+    @Benchmark
+    public long maxScan() {
+        return store.keySet().stream().mapToLong(id -> id).max().orElse(0) + 1;
+    }
+
+    @Benchmark
+    public long sequenceNext() {
+        return sequence.next();
+    }
+
+    @Benchmark
+    public IdSequence.Block sequenceBlock() {
+        return sequence.nextBlock(64);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdAllocationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Запрос популярных: инкрементальный рейтинг против сортировки всего каталога при каждом чтении
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopularFilmsBenchmark {
+    private static final int COUNT = 10;
+
+    @Param({"10000", "100000"})
+    int films;
+
+    LikeStorage likeStorage;
+    Map<Long, Long> likeCounts;
+    long nextUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        likeStorage = new InMemoryLikeStorage();
+        likeCounts = new ConcurrentHashMap<>();
+        for (long filmId = 1; filmId <= films; filmId++) {
+            int likes = random.nextInt(50);
+            for (long userId = 1; userId <= likes; userId++) {
+                likeStorage.addLike(filmId, userId);
+            }
+            likeCounts.put(filmId, (long) likes);
+        }
+        nextUser = 1_000;
+    }
+
+    @Benchmark
+    public List<Long> incrementalRating() {
+        return likeStorage.findPopularIds(COUNT);
+    }
+
+    @Benchmark
+    public List<Long> sortOnRead() {
+        return likeCounts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(COUNT)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Цена записи: лайк переставляет фильм в рейтинге
+    @Benchmark
+    public boolean like() {
+        return likeStorage.addLike(1 + nextUser % films, nextUser++);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PopularFilmsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.netty.DisposableServer;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Сравнение сервлетного и реактивного стеков в одном процессе: одинаковый каталог,
+// одинаковые клиенты. Замеряются чтение всего каталога (JSON и NDJSON) и добавление фильма.
+// Аргументы: [фильмов в каталоге] [параллельных клиентов] [запросов на клиента]
+public class ReactiveLoadTest {
+    private static final int FILMS = 10_000;
+    private static final int CLIENTS = 200;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final String FILM_JSON = "{\"name\":\"Name\",\"description\":\"Description\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":120}";
+
+    public static void main(final String[] args) throws Exception {
+        int films = args.length > 0 ? Integer.parseInt(args[0]) : FILMS;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : CLIENTS;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : REQUESTS_PER_CLIENT;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run("--server.port=0",
+                        "--filmorate.reactive.enabled=true",
+                        "--filmorate.reactive.port=0",
+                        "--filmorate.admission.enabled=false",
+                        "--logging.level.ru.yandex.practicum=WARN");
+             HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            String servlet = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+            String reactive = "http://localhost:" + context.getBean(DisposableServer.class).port();
+            preload(client, servlet, films);
+
+            System.out.println("stack,scenario,requests,errors,seconds,rps,p50_ms,p99_ms");
+            for (String scenario : new String[]{"json", "ndjson", "post"}) {
+                for (String base : new String[]{servlet, reactive}) {
+                    String stack = base.equals(servlet) ? "servlet" : "reactive";
+                    // Прогрев, чтобы JIT и пулы соединений не попали в замер
+                    load(client, request(base, scenario), clients, Math.max(1, requests / 5));
+                    System.out.println(stack + "," + scenario + ","
+                            + load(client, request(base, scenario), clients, requests));
+                }
+            }
+        }
+    }
+
+    private static void preload(HttpClient client, String base, int films) throws Exception {
+        StringJoiner batch = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < films; i++) {
+            batch.add(FILM_JSON);
+        }
+        client.send(HttpRequest.newBuilder(URI.create(base + "/films/batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(batch.toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static HttpRequest request(String base, String scenario) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + "/films"))
+                .timeout(Duration.ofMinutes(2));
+        return switch (scenario) {
+            case "json" -> builder.header("Accept", "application/json").GET().build();
+            case "ndjson" -> builder.header("Accept", "application/x-ndjson").GET().build();
+            default -> builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(FILM_JSON)).build();
+        };
+    }
+
+    private static String load(HttpClient client, HttpRequest request, int clients, int requests)
+            throws InterruptedException {
+        long[] latencies = new long[clients * requests];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long started;
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < clients; worker++) {
+                int first = worker * requests;
+                workers.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = first; i < first + requests; i++) {
+                            long sent = System.nanoTime();
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            latencies[i] = System.nanoTime() - sent;
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            started = System.nanoTime();
+            start.countDown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Arrays.sort(latencies);
+        return String.format("%d,%d,%.2f,%.0f,%.1f,%.1f", latencies.length, errors.get(), seconds,
+                latencies.length / seconds, latencies[latencies.length / 2] / 1e6,
+                latencies[(int) (latencies.length * 0.99)] / 1e6);
+    }
+}
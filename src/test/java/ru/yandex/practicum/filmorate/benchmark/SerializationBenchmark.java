@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация больших ответов findAll: массив JSON целиком и поток NDJSON
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int size;
+
+    ObjectMapper objectMapper;
+    NdjsonWriter ndjsonWriter;
+    List<Film> films;
+    List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Настройки как у ObjectMapper, который собирает Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ndjsonWriter = new NdjsonWriter(objectMapper);
+        films = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            films.add(FilmControllerBenchmark.film((long) i, i));
+            users.add(User.builder()
+                    .id((long) i)
+                    .email("user" + i + "@test.ru")
+                    .login("user" + i)
+                    .birthday(LocalDate.of(1970, 1, 1).plusDays(i % 15_000))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] filmsJsonArray() throws IOException {
+        return objectMapper.writeValueAsBytes(films);
+    }
+
+    @Benchmark
+    public long filmsNdjson() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        ndjsonWriter.write(films).writeTo(out);
+        return out.count;
+    }
+
+    @Benchmark
+    public byte[] usersJsonArray() throws IOException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    // Считает байты вместо записи, чтобы замер не включал копирование в буфер
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
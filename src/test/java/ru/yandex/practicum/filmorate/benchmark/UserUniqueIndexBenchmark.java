@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.index.UserUniqueIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+// Проверка уникальности email и логина и поиск по логину: хеш-индекс против обхода всех пользователей
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class UserUniqueIndexBenchmark {
+    private static final int BATCH = 10_000;
+
+    @Param({"1000000", "3000000"})
+    int users;
+
+    UserStorage userStorage;
+    UserUniqueIndex uniqueIndex;
+    User fresh;
+    User duplicate;
+    long nextLogin;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userStorage = new InMemoryUserStorage(new IdGenerator());
+        uniqueIndex = new UserUniqueIndex();
+        for (int from = 0; from < users; from += BATCH) {
+            List<User> batch = new ArrayList<>(BATCH);
+            for (int i = from; i < Math.min(users, from + BATCH); i++) {
+                batch.add(user(i));
+            }
+            userStorage.addAll(batch);
+            batch.forEach(uniqueIndex::index);
+        }
+        fresh = user(users);
+        duplicate = user(users / 2);
+    }
+
+    @Benchmark
+    public Optional<User> findByLoginIndexed() {
+        OptionalLong id = uniqueIndex.findByLogin(nextLogin());
+        return id.isPresent() ? userStorage.findById(id.getAsLong()) : Optional.empty();
+    }
+
+    @Benchmark
+    public Optional<User> findByLoginScan() {
+        String login = nextLogin();
+        return userStorage.findAll().stream()
+                .filter(user -> user.getLogin().equalsIgnoreCase(login))
+                .findFirst();
+    }
+
+    // Свободные email и логин: ключи занимаются и сразу освобождаются, чтобы индекс не рос
+    @Benchmark
+    public long uniqueCheckIndexed() {
+        long reservation = uniqueIndex.reserve();
+        uniqueIndex.claim(reservation, fresh);
+        uniqueIndex.release(reservation, fresh, null);
+        return reservation;
+    }
+
+    @Benchmark
+    public boolean uniqueCheckScan() {
+        return userStorage.findAll().stream()
+                .noneMatch(user -> user.getEmail().equalsIgnoreCase(fresh.getEmail())
+                        || user.getLogin().equalsIgnoreCase(fresh.getLogin()));
+    }
+
+    @Benchmark
+    public boolean duplicateRejectedIndexed() {
+        try {
+            uniqueIndex.claim(uniqueIndex.reserve(), duplicate);
+            return false;
+        } catch (ConflictException e) {
+            return true;
+        }
+    }
+
+    // Логины разбросаны по всему диапазону id, иначе обход находил бы их в начале карты
+    private String nextLogin() {
+        return login(nextLogin++ * 7_919 % users);
+    }
+
+    private static User user(long i) {
+        return User.builder()
+                .email(login(i) + "@mail.ru")
+                .login(login(i))
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private static String login(long i) {
+        return "user" + i;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserUniqueIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validation.CreateValidationGroup;
+import ru.yandex.practicum.filmorate.validation.UpdateValidationGroup;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Стоимость Bean Validation на один объект: корректный и с нарушениями, для групп пользователя
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    Validator validator;
+    Film validFilm;
+    Film invalidFilm;
+    User newUser;
+    User changedUser;
+    User invalidUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        validFilm = Film.builder()
+                .name("Name")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build();
+        invalidFilm = Film.builder()
+                .name(" ")
+                .description("x".repeat(201))
+                .duration(-1)
+                .build();
+        newUser = User.builder()
+                .email("user@test.ru")
+                .login("login")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+        changedUser = User.builder()
+                .id(1L)
+                .email("user@test.ru")
+                .login("login")
+                .name("Name")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+        invalidUser = User.builder()
+                .id(1L)
+                .email("not an email")
+                .login("log in")
+                .birthday(LocalDate.now().plusDays(1))
+                .build();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Film>> validFilm() {
+        return validator.validate(validFilm);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Film>> invalidFilm() {
+        return validator.validate(invalidFilm);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> createUser() {
+        return validator.validate(newUser, CreateValidationGroup.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> updateUser() {
+        return validator.validate(changedUser, UpdateValidationGroup.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> invalidUserOnCreate() {
+        return validator.validate(invalidUser, CreateValidationGroup.class);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
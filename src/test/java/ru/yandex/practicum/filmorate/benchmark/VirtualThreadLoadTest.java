@@ -0,0 +1,144 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Нагрузочное сравнение Tomcat на потоках платформы и на виртуальных потоках.
+// Каждое из CONNECTIONS соединений последовательно добавляет фильмы; запись ждёт групповой
+// коммит журнала, то есть запрос блокируется на вводе-выводе, как при постоянном хранилище.
+// Аргументы: [число соединений] [запросов на соединение] [окно коммита, мс]
+public class VirtualThreadLoadTest {
+    private static final int CONNECTIONS = 10_000;
+    private static final int REQUESTS_PER_CONNECTION = 5;
+    private static final int COMMIT_WINDOW_MILLIS = 20;
+    private static final String FILM_JSON = "{\"name\":\"Name\",\"description\":\"Description\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":120}";
+
+    public static void main(final String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : CONNECTIONS;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : REQUESTS_PER_CONNECTION;
+        int commitWindow = args.length > 2 ? Integer.parseInt(args[2]) : COMMIT_WINDOW_MILLIS;
+        System.out.println("mode,connections,requests,errors,seconds,rps,p50_ms,p99_ms,max_ms");
+        for (boolean virtual : new boolean[]{false, true}) {
+            System.out.println(run(virtual, connections, requests, commitWindow));
+        }
+    }
+
+    // Приложение запускается отдельной JVM: клиент и сервер на 10 000 соединений вместе
+    // не укладываются в лимит открытых файлов одного процесса
+    private static String run(boolean virtual, int connections, int requests, int commitWindow)
+            throws Exception {
+        Path walDirectory = Files.createTempDirectory("load-wal");
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Process server = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                FilmorateApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.threads.virtual.enabled=" + virtual,
+                // Под полной нагрузкой запрос может ждать чтения дольше стандартных 20 с
+                "--server.tomcat.connection-timeout=2m",
+                "--server.tomcat.keep-alive-timeout=2m",
+                "--filmorate.wal.enabled=true",
+                "--filmorate.wal.directory=" + walDirectory,
+                "--filmorate.wal.commit-window=" + commitWindow + "ms",
+                // 10 000 соединений одного клиента — сравнивается модель потоков, а не допуск записей
+                "--filmorate.admission.enabled=false",
+                "--logging.level.ru.yandex.practicum=WARN")
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            URI uri = URI.create("http://localhost:" + port + "/films");
+            awaitStarted(uri);
+            return load(virtual ? "virtual" : "platform", uri, connections, requests);
+        } finally {
+            server.destroy();
+            server.waitFor();
+            try (Stream<Path> files = Files.walk(walDirectory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void awaitStarted(URI uri) throws InterruptedException {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            for (int attempt = 0; attempt < 600; attempt++) {
+                try {
+                    client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+                    return;
+                } catch (IOException e) {
+                    Thread.sleep(100);
+                }
+            }
+        }
+        throw new IllegalStateException("Приложение не запустилось: " + uri);
+    }
+
+    private static String load(String mode, URI uri, int connections, int requests) throws InterruptedException {
+        long[] latencies = new long[connections * requests];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofString(FILM_JSON))
+                .build();
+        long started;
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMinutes(1))
+                .build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int connection = 0; connection < connections; connection++) {
+                int first = connection * requests;
+                clients.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = first; i < first + requests; i++) {
+                            long sent = System.nanoTime();
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            latencies[i] = System.nanoTime() - sent;
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            started = System.nanoTime();
+            start.countDown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Arrays.sort(latencies);
+        return String.format("%s,%d,%d,%d,%.2f,%.0f,%.1f,%.1f,%.1f", mode, connections, latencies.length,
+                errors.get(), seconds, latencies.length / seconds, percentile(latencies, 0.50),
+                percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * sorted.length))] / 1e6;
+    }
+}
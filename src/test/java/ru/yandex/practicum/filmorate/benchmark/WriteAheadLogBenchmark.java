@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.EntityCodec;
+import ru.yandex.practicum.filmorate.storage.wal.MappedWriteAheadLog;
+import ru.yandex.practicum.filmorate.storage.wal.WalRecordType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Подтверждённых коммитов в секунду при 32 параллельных писателях и разных окнах группового коммита
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class WriteAheadLogBenchmark {
+
+    @Param({"0", "200", "1000", "5000"})
+    long commitWindowMicros;
+
+    Path directory;
+    MappedWriteAheadLog wal;
+    byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal-bench");
+        wal = new MappedWriteAheadLog(directory, 256 * 1024 * 1024,
+                Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(commitWindowMicros)), 4096);
+        payload = EntityCodec.encodeFilm(Film.builder()
+                .id(1L)
+                .name("Name")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        wal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void commit() {
+        wal.append(WalRecordType.FILM_CREATED, payload).join();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WriteAheadLogBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
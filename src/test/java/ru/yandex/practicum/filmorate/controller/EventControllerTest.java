@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EventControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ChangeEventBuffer changeEvents;
+
+    @Test
+    @DisplayName("добавление и обновление фильма приходят подписчику по порядку с номерами событий")
+    void subscriberReceivesFilmChanges() throws Exception {
+        long since = changeEvents.lastSequence();
+        MockHttpServletResponse stream = mockMvc.perform(get("/events").param("since", String.valueOf(since)))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+
+        String film = "{\"name\":\"Поток\",\"description\":\"Описание\",\"releaseDate\":\"2000-01-01\",\"duration\":90}";
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(film))
+                .andExpect(status().isOk());
+        String updated = film.replace("{", "{\"id\":" + changeEvents.get(since + 1).getEntityId() + ",")
+                .replace("Поток", "Поток 2");
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON).content(updated))
+                .andExpect(status().isOk());
+
+        String body = awaitContent(stream, "Поток 2");
+        int created = body.indexOf("id:" + (since + 1) + "\nevent:FILM_CREATED");
+        int changed = body.indexOf("id:" + (since + 2) + "\nevent:FILM_UPDATED");
+        assertTrue(created >= 0 && changed > created, "События пришли не по порядку: " + body);
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String body = response.getContentAsString(StandardCharsets.UTF_8);
+            if (body.contains(expected)) {
+                return body;
+            }
+            Thread.sleep(50);
+        }
+        return response.getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -1,21 +1,40 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.http.MediaType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.unit.DataSize;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+import ru.yandex.practicum.filmorate.storage.index.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmTextIndex;
+import ru.yandex.practicum.filmorate.storage.wal.DisabledWriteAheadLog;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -25,6 +44,7 @@ import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -32,14 +52,27 @@ public class FilmControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
     private FilmController controller;
+    // Запросы к controller, собранному в тесте, а не к бину приложения
+    private MockMvc controllerMvc;
     private Film film;
     private Film film1;
     private Film film2;
 
     @BeforeEach
     public void beforeEach() {
-        controller = new FilmController();
+        FilmRangeIndex rangeIndex = new FilmRangeIndex();
+        FilmTextIndex textIndex = new FilmTextIndex();
+        IdGenerator ids = new IdGenerator();
+        controller = new FilmController(
+                new FilmService(new InMemoryFilmStorage(ids), new InMemoryUserStorage(ids), new InMemoryLikeStorage(),
+                        ids, new DisabledWriteAheadLog(), new ChangeEventBuffer(1024),
+                        List.of(rangeIndex, textIndex), rangeIndex, textIndex),
+                new NdjsonWriter(new ObjectMapper()),
+                new ResponseCache(new ObjectMapper().findAndRegisterModules(), DataSize.ofMegabytes(1), 1024),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        controllerMvc = MockMvcBuilders.standaloneSetup(controller).build();
         film = Film.builder()
                 .name("Name")
                 .description("Description")
@@ -64,9 +97,9 @@ public class FilmControllerTest {
 
     @Test
     @DisplayName("тест создания фильма")
-    void testCreate() {
+    void testCreate() throws Exception {
         controller.add(film);
-        final Collection<Film> films = new ArrayList<>(controller.findAll());
+        final Collection<Film> films = findAll();
 
         assertNotNull(films, "Фильм не найден");
         assertEquals(1, films.size(), "Неверное количество фильмов");
@@ -130,10 +163,10 @@ public class FilmControllerTest {
 
     @Test
     @DisplayName("тест на обновление фильма")
-    void testUpdateFilm() {
+    void testUpdateFilm() throws Exception {
         controller.add(film);
         controller.update(film1);
-        Map<Long, Film> films = controller.findAll().stream()
+        Map<Long, Film> films = findAll().stream()
                 .collect(Collectors.toMap(Film::getId, Function.identity()));
 
         assertNotNull(films, "Фильм не найден");
@@ -144,18 +177,173 @@ public class FilmControllerTest {
 
     @Test
     @DisplayName("тест обновления когда номер id некорректен")
-    void testUpdateFail() {
+    void testUpdateFail() throws Exception {
         controller.add(film);
         final NotFoundException exception = assertThrows(
                 NotFoundException.class,
                 () -> controller.update(film2));
         assertEquals("Фильм с id = 555 не найден", exception.getMessage());
 
-        Map<Long, Film> films = controller.findAll().stream()
+        Map<Long, Film> films = findAll().stream()
                 .collect(Collectors.toMap(Film::getId, Function.identity()));
 
         assertNotNull(films, "Фильм не найден");
         assertEquals(1, films.size(), "Неверное количество фильмов");
         assertTrue(films.containsKey(1L), "Фильм не совпадает");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("тест постраничного получения фильмов по курсору")
+    void testFindPage() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            controller.add(Film.builder()
+                    .name("Name" + i)
+                    .description("Description")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(120)
+                    .build());
+        }
+
+        List<Film> firstPage = findPage(0, 2);
+        List<Film> secondPage = findPage(firstPage.get(1).getId(), 2);
+        List<Film> lastPage = findPage(secondPage.get(1).getId(), 2);
+
+        assertEquals(List.of(1L, 2L), firstPage.stream().map(Film::getId).toList(), "Неверная первая страница");
+        assertEquals(List.of(3L, 4L), secondPage.stream().map(Film::getId).toList(), "Неверная вторая страница");
+        assertEquals(List.of(5L), lastPage.stream().map(Film::getId).toList(), "Неверная последняя страница");
+    }
+
+    @Test
+    @DisplayName("тест получения фильмов с некорректным limit")
+    void testFindPageWrongLimit() throws Exception {
+        mockMvc.perform(get("/films").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Параметр limit должен быть от 1 до 1000"));
+    }
+
+    @Test
+    @DisplayName("тест потоковой выдачи фильмов в формате NDJSON")
+    void testStreamNdjson() throws Exception {
+        String filmJson = "{ " +
+                "\"name\": \"Stream\", " +
+                "\"description\": \"TestDescription\", " +
+                "\"releaseDate\": \"2020-02-02\", " +
+                "\"duration\": 100" +
+                "}";
+        mockMvc.perform(post("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(filmJson))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/films").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertTrue(body.lines().allMatch(line -> line.startsWith("{") && line.endsWith("}")),
+                "Каждая строка должна быть отдельным JSON-объектом");
+        assertTrue(body.contains("\"name\":\"Stream\""), "Фильм не найден в потоке");
+        MvcResult array = mockMvc.perform(get("/films"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(array))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    @DisplayName("тест пакетного создания фильмов с частичной ошибкой")
+    void testBatchCreate() throws Exception {
+        String filmsJson = "[" +
+                "{\"name\": \"First\", \"description\": \"D\", \"releaseDate\": \"2000-01-01\", \"duration\": 90}," +
+                "{\"name\": \"Old\", \"description\": \"D\", \"releaseDate\": \"1800-01-01\", \"duration\": 90}," +
+                "{\"name\": \"Third\", \"description\": \"D\", \"releaseDate\": \"2001-01-01\", \"duration\": 100}" +
+                "]";
+        mockMvc.perform(post("/films/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(filmsJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].entity.id").isNumber())
+                .andExpect(jsonPath("$.items[1].status").value(400))
+                .andExpect(jsonPath("$.items[1].errors[0]").value(
+                        "Дата релиза должна быть не раньше 28 декабря 1895 года"))
+                .andExpect(jsonPath("$.items[2].entity.name").value("Third"));
+    }
+
+    @Test
+    @DisplayName("тест пакетного обновления, где у одного фильма устаревшая версия")
+    void testBatchUpdateWithStaleVersion() throws Exception {
+        Film fresh = controller.add(film.toBuilder().build());
+        Film stale = controller.add(film.toBuilder().build());
+
+        BatchResult<Film> result = controller.updateAll(List.of(
+                fresh.toBuilder().name("Новое").version(1L).build(),
+                stale.toBuilder().name("Старое").version(5L).build(),
+                film.toBuilder().id(999L).build()));
+
+        assertEquals(1, result.getSucceeded(), "Конфликт не должен отменять остальные элементы");
+        assertEquals(200, result.getItems().get(0).getStatus());
+        assertEquals(409, result.getItems().get(1).getStatus());
+        assertEquals(404, result.getItems().get(2).getStatus());
+        Map<Long, String> names = findAll().stream().collect(Collectors.toMap(Film::getId, Film::getName));
+        assertEquals("Новое", names.get(fresh.getId()), "Фильм с верной версией не обновлён");
+        assertEquals("Name", names.get(stale.getId()), "Фильм с устаревшей версией изменён");
+    }
+
+    @Test
+    @DisplayName("тест поиска фильмов по диапазонам даты релиза и продолжительности")
+    void testSearchByRanges() {
+        for (int i = 0; i < 10; i++) {
+            controller.add(Film.builder()
+                    .name("Name" + i)
+                    .description("Description")
+                    .releaseDate(LocalDate.of(2000 + i, 1, 1))
+                    .duration(60 + i * 10)
+                    .build());
+        }
+        controller.update(Film.builder()
+                .id(3L)
+                .name("Moved")
+                .description("Description")
+                .releaseDate(LocalDate.of(1990, 1, 1))
+                .duration(200)
+                .build());
+
+        List<Film> byDate = controller.search(null, LocalDate.of(2001, 1, 1), LocalDate.of(2004, 6, 1), null, null, 100);
+        List<Film> byBoth = controller.search(null, LocalDate.of(2001, 1, 1), null, 100, 130, 100);
+        List<Film> byDuration = controller.search(null, null, null, 150, null, 100);
+
+        assertEquals(List.of(2L, 4L, 5L), byDate.stream().map(Film::getId).toList(), "Неверный поиск по дате");
+        assertEquals(List.of(5L, 6L, 7L, 8L), byBoth.stream().map(Film::getId).toList(), "Неверный поиск по двум условиям");
+        assertEquals(List.of(10L, 3L), byDuration.stream().map(Film::getId).toList(), "Неверный поиск по продолжительности");
+    }
+
+    private List<Film> findAll() throws Exception {
+        MvcResult started = controllerMvc.perform(get("/films"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return readFilms(controllerMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn());
+    }
+
+    private List<Film> findPage(long after, int limit) throws Exception {
+        return readFilms(controllerMvc.perform(get("/films")
+                        .param("after", String.valueOf(after))
+                        .param("limit", String.valueOf(limit)))
+                .andExpect(status().isOk())
+                .andReturn());
+    }
+
+    private List<Film> readFilms(MvcResult result) throws Exception {
+        return mapper.readValue(result.getResponse().getContentAsByteArray(), new TypeReference<>() {
+        });
+    }
+}
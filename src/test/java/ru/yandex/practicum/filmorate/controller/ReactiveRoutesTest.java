@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+import ru.yandex.practicum.filmorate.service.ReactiveUserService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFriendStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+import ru.yandex.practicum.filmorate.storage.index.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmTextIndex;
+import ru.yandex.practicum.filmorate.storage.index.UserUniqueIndex;
+import ru.yandex.practicum.filmorate.storage.wal.DisabledWriteAheadLog;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReactiveRoutesTest {
+    private WebTestClient client;
+
+    @BeforeEach
+    void beforeEach() {
+        IdGenerator ids = new IdGenerator();
+        UserStorage userStorage = new InMemoryUserStorage(ids);
+        FilmRangeIndex rangeIndex = new FilmRangeIndex();
+        FilmTextIndex textIndex = new FilmTextIndex();
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(ids), userStorage,
+                new InMemoryLikeStorage(), ids, new DisabledWriteAheadLog(), new ChangeEventBuffer(1024),
+                List.of(rangeIndex, textIndex), rangeIndex, textIndex);
+        UserService userService = new UserService(userStorage, new InMemoryFriendStorage(), ids,
+                new DisabledWriteAheadLog(), new ChangeEventBuffer(1024), new UserUniqueIndex());
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        ReactiveJsonWriter jsonWriter = new ReactiveJsonWriter(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        client = WebTestClient.bindToRouterFunction(ReactiveServerConfig.routes(
+                new ReactiveFilmHandler(new ReactiveFilmService(filmService), jsonWriter, validator),
+                new ReactiveUserHandler(new ReactiveUserService(userService), jsonWriter, validator))).build();
+    }
+
+    @Test
+    @DisplayName("реактивный стек проверяет дату релиза так же, как сервлетный")
+    void addFilmChecksReleaseDate() {
+        client.post().uri("/films")
+                .bodyValue(film("Старый", LocalDate.of(1800, 1, 1)))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Дата релиза должна быть не раньше 28 декабря 1895 года");
+
+        client.post().uri("/films")
+                .bodyValue(film("", LocalDate.of(2000, 1, 1)))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errorMessages").isNotEmpty();
+
+        Film unknown = film("Нет такого", LocalDate.of(2000, 1, 1));
+        unknown.setId(999L);
+        client.put().uri("/films")
+                .bodyValue(unknown)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("фильмы отдаются массивом JSON и потоком NDJSON начиная с after")
+    void streamFilms() {
+        for (int i = 0; i < 5; i++) {
+            client.post().uri("/films")
+                    .bodyValue(film("Фильм " + i, LocalDate.of(2000, 1, 1)))
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        List<Film> films = client.get().uri("/films?after=2")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Film.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(List.of(3L, 4L, 5L), films.stream().map(Film::getId).toList(), "Неверная страница потока");
+
+        client.get().uri("/films")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(5)
+                .jsonPath("$[0].releaseDate").isEqualTo("2000-01-01");
+    }
+
+    @Test
+    @DisplayName("нечисловой after отклоняется с 400, как в сервлетном стеке")
+    void invalidAfterIsBadRequest() {
+        for (String uri : List.of("/films?after=abc", "/users?after=1.5")) {
+            client.get().uri(uri)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody().jsonPath("$.error").isEqualTo("Параметр after должен быть целым числом");
+        }
+    }
+
+    @Test
+    @DisplayName("пустое имя пользователя заменяется логином")
+    void addUserUsesLoginAsName() {
+        User user = User.builder()
+                .email("reactive@test.ru")
+                .login("reactive")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+
+        client.post().uri("/users")
+                .bodyValue(user)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo("reactive");
+    }
+
+    private static Film film(String name, LocalDate releaseDate) {
+        return Film.builder()
+                .name(name)
+                .description("Описание")
+                .releaseDate(releaseDate)
+                .duration(100)
+                .build();
+    }
+}
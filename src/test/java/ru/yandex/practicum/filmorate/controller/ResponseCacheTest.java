@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+    private static final int MAX_ENTRIES = 100;
+
+    private ResponseCache cache;
+    private final AtomicInteger built = new AtomicInteger();
+    private final Supplier<List<Long>> emptyPage = () -> {
+        built.incrementAndGet();
+        return List.of();
+    };
+
+    @BeforeEach
+    void beforeEach() {
+        cache = new ResponseCache(new ObjectMapper(), DataSize.ofMegabytes(64), MAX_ENTRIES);
+    }
+
+    @Test
+    @DisplayName("перебор after не растит кэш сверх лимита записей, а пустые страницы не бесплатны")
+    void pageSweepIsBounded() {
+        for (long after = 1; after <= 10_000; after++) {
+            cache.respond("/films", "?after=" + after + "&limit=1", 1, null, emptyPage);
+        }
+
+        assertEquals(MAX_ENTRIES, cache.cachedEntries(), "Число записей вышло за лимит");
+        assertTrue(cache.cachedBytes() > MAX_ENTRIES * "[]".length() * 10L,
+                "Размер записи должен учитывать ключ и накладные расходы, а не только тело");
+    }
+
+    @Test
+    @DisplayName("новая версия коллекции сразу удаляет её страницы со старой версией")
+    void newerVersionEvictsOlderPages() {
+        for (long after = 1; after <= 10; after++) {
+            cache.respond("/films", "?after=" + after + "&limit=1", 1, null, emptyPage);
+        }
+        cache.respond("/users", "?after=0&limit=10", 7, null, emptyPage);
+
+        cache.respond("/films", "?after=0&limit=10", 2, null, emptyPage);
+
+        assertEquals(2, cache.cachedEntries(), "Остались страницы фильмов старой версии или пропали пользователи");
+    }
+
+    @Test
+    @DisplayName("ответ, построенный по старой версии, не вытесняет более свежий")
+    void staleVersionDoesNotReplaceNewer() {
+        cache.respond("/films", "?after=0&limit=10", 2, null, emptyPage);
+        cache.respond("/films", "?after=0&limit=10", 1, null, emptyPage);
+        cache.respond("/films", "?after=0&limit=10", 2, null, emptyPage);
+
+        assertEquals(2, built.get(), "Свежая версия должна остаться в кэше");
+        assertEquals(1, cache.cachedEntries(), "Старая версия попала в кэш");
+    }
+
+    @Test
+    @DisplayName("коллекция целиком пишется потоком, не попадает в кэш и отвечает 304 по ETag версии")
+    void wholeCollectionIsStreamedNotCached() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = cache.stream(3, null, List.of(1L, 2L, 3L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals("[1,2,3]", out.toString(StandardCharsets.UTF_8));
+        assertEquals(0, cache.cachedEntries(), "Коллекция целиком не должна кэшироваться");
+        assertEquals(0, cache.cachedBytes(), "Коллекция целиком не должна кэшироваться");
+        assertEquals(HttpStatus.NOT_MODIFIED,
+                cache.stream(3, response.getHeaders().getETag(), List.of()).getStatusCode());
+    }
+}
@@ -1,17 +1,27 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -57,4 +67,220 @@ class UserControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.errorMessages[0]").value("Логин не должен содержать пробелы"));
     }
+
+    @Test
+    @DisplayName("Пакетное создание пользователей из NDJSON")
+    void createUsersFromNdjson_ShouldReportEachItem() throws Exception {
+        String usersNdjson = "{\"email\":\"first@test.ru\",\"login\":\"first\",\"birthday\":\"1990-01-01\"}\n" +
+                "{\"email\":\"second@test.ru\",\"login\":\"sec ond\",\"birthday\":\"1990-01-01\"}\n";
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(usersNdjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.items[0].entity.name").value("first"))
+                .andExpect(jsonPath("$.items[1].status").value(400))
+                .andExpect(jsonPath("$.items[1].errors[0]").value("Логин не должен содержать пробелы"));
+    }
+
+    @Test
+    @DisplayName("Добавление в друзья и получение общих друзей")
+    void friends_ShouldBeMutualAndIntersect() throws Exception {
+        long first = createUser("friend1");
+        long second = createUser("friend2");
+        long common = createUser("friend3");
+
+        mockMvc.perform(put("/users/{id}/friends/{friendId}", first, common)).andExpect(status().isOk());
+        mockMvc.perform(put("/users/{id}/friends/{friendId}", second, common)).andExpect(status().isOk());
+        mockMvc.perform(put("/users/{id}/friends/{friendId}", first, second)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/{id}/friends", common))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/users/{id}/friends/common/{otherId}", first, second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(common));
+
+        mockMvc.perform(delete("/users/{id}/friends/{friendId}", common, first)).andExpect(status().isOk());
+        mockMvc.perform(get("/users/{id}/friends", first))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(second));
+        mockMvc.perform(put("/users/{id}/friends/{friendId}", first, 9999))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Повторное чтение без изменений отвечает 304, изменение меняет ETag")
+    void getUsers_ShouldAnswerNotModifiedUntilChanged() throws Exception {
+        createUser("etag1");
+        String etag = mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        long id = createUser("etag2");
+        MvcResult changed = mockMvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(changed))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$[?(@.id == %d)].login", id).value("etag2"));
+    }
+
+    @Test
+    @DisplayName("Обновление с устаревшей версией в If-Match отклоняется с 409")
+    void updateUserWithStaleIfMatch_ShouldReturnConflict() throws Exception {
+        long id = createUser("versioned");
+        String userJson = String.format("{\"id\":%d,\"email\":\"versioned@test.ru\",\"login\":\"versioned\","
+                + "\"name\":\"%s\",\"birthday\":\"1990-01-01\"}", id, "Первое имя");
+
+        mockMvc.perform(put("/users")
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(userJson))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.version").value(2));
+
+        mockMvc.perform(put("/users")
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(userJson.replace("Первое имя", "Второе имя")))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value(
+                        "Пользователь с id=" + id + " уже изменён: текущая версия 2, ожидалась 1"));
+    }
+
+    @Test
+    @DisplayName("Повторный email или логин отклоняется, поиск по логину видит изменения")
+    void duplicateEmailOrLogin_ShouldReturnConflict() throws Exception {
+        long id = createUser("unique1");
+        String duplicateEmail = "{\"email\":\"UNIQUE1@test.ru\",\"login\":\"other1\",\"birthday\":\"1990-01-01\"}";
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(duplicateEmail))
+                .andExpect(status().isConflict());
+        String duplicateLogin = "{\"email\":\"other1@test.ru\",\"login\":\"Unique1\",\"birthday\":\"1990-01-01\"}";
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(duplicateLogin))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/users/by-login/UNIQUE1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+
+        String renamed = String.format("{\"id\":%d,\"email\":\"unique1@test.ru\",\"login\":\"renamed1\","
+                + "\"birthday\":\"1990-01-01\"}", id);
+        mockMvc.perform(put("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(renamed))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/by-login/renamed1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+        mockMvc.perform(get("/users/by-login/unique1"))
+                .andExpect(status().isNotFound());
+        // Освободившийся логин снова можно занять
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"reused1@test.ru\",\"login\":\"unique1\",\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Занятый email в пакете даёт 409 только своему элементу")
+    void createUsersBatchWithTakenEmail_ShouldRejectOnlyConflictingItem() throws Exception {
+        createUser("taken");
+        String usersJson = "[" +
+                "{\"email\":\"batch1@test.ru\",\"login\":\"batch1\",\"birthday\":\"1990-01-01\"}," +
+                "{\"email\":\"taken@test.ru\",\"login\":\"batch2\",\"birthday\":\"1990-01-01\"}," +
+                "{\"email\":\"batch3@test.ru\",\"login\":\"batch1\",\"birthday\":\"1990-01-01\"}," +
+                "{\"email\":\"batch4@test.ru\",\"login\":\"batch4\",\"birthday\":\"1990-01-01\"}" +
+                "]";
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(usersJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.items[0].entity.id").isNumber())
+                .andExpect(jsonPath("$.items[1].status").value(409))
+                .andExpect(jsonPath("$.items[2].status").value(409))
+                .andExpect(jsonPath("$.items[3].entity.login").value("batch4"));
+        mockMvc.perform(get("/users/by-login/{login}", "batch2")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Устаревшая версия в пакете обновления даёт 409 только своему элементу")
+    void updateUsersBatchWithStaleVersion_ShouldApplyOtherItems() throws Exception {
+        long fresh = createUser("fresh");
+        long stale = createUser("stale");
+        String usersJson = String.format("[" +
+                "{\"id\":%d,\"version\":1,\"email\":\"fresh@test.ru\",\"login\":\"fresh\",\"name\":\"Новое\","
+                + "\"birthday\":\"1990-01-01\"}," +
+                "{\"id\":%d,\"version\":7,\"email\":\"stale@test.ru\",\"login\":\"stale\",\"name\":\"Старое\","
+                + "\"birthday\":\"1990-01-01\"}" +
+                "]", fresh, stale);
+
+        mockMvc.perform(put("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(usersJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.items[0].entity.name").value("Новое"))
+                .andExpect(jsonPath("$.items[0].entity.version").value(2))
+                .andExpect(jsonPath("$.items[1].status").value(409));
+    }
+
+    @Test
+    @DisplayName("Пакет, меняющий логин X → Y → X, оставляет логин X за пользователем")
+    void updateUsersBatchReturningToOriginalLogin_ShouldKeepLoginIndexed() throws Exception {
+        long id = createUser("roundtrip");
+        String usersJson = String.format("[" +
+                "{\"id\":%d,\"email\":\"roundtrip@test.ru\",\"login\":\"detour\",\"birthday\":\"1990-01-01\"}," +
+                "{\"id\":%d,\"email\":\"roundtrip@test.ru\",\"login\":\"roundtrip\",\"birthday\":\"1990-01-01\"}" +
+                "]", id, id);
+
+        mockMvc.perform(put("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(usersJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2));
+
+        mockMvc.perform(get("/users/by-login/{login}", "roundtrip"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+        mockMvc.perform(get("/users/by-login/{login}", "detour")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"other@test.ru\",\"login\":\"roundtrip\",\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"detour@test.ru\",\"login\":\"detour\",\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private long createUser(String login) throws Exception {
+        String userJson = String.format("{\"email\":\"%s@test.ru\",\"login\":\"%s\",\"birthday\":\"1990-01-01\"}",
+                login, login);
+        String response = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(userJson))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return new ObjectMapper().readTree(response).get("id").asLong();
+    }
 }
\ No newline at end of file
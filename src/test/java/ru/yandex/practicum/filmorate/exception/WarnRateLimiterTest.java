@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarnRateLimiterTest {
+
+    @Test
+    @DisplayName("Сверх лимита предупреждения отбрасываются и считаются")
+    void tryAcquire_ShouldCountSuppressedWarnings() {
+        WarnRateLimiter limiter = new WarnRateLimiter(2, Duration.ofHours(1));
+
+        assertTrue(limiter.tryAcquire(), "Первое предупреждение должно пройти");
+        assertTrue(limiter.tryAcquire(), "Второе предупреждение должно пройти");
+        assertFalse(limiter.tryAcquire(), "Третье предупреждение должно быть отброшено");
+        assertFalse(limiter.tryAcquire(), "Четвёртое предупреждение должно быть отброшено");
+        assertEquals(2, limiter.drainSuppressed(), "Должны быть посчитаны два отброшенных предупреждения");
+        assertEquals(0, limiter.drainSuppressed(), "Счётчик должен обнуляться после чтения");
+    }
+
+    @Test
+    @DisplayName("В новом интервале лимит начинается заново")
+    void tryAcquire_ShouldResetLimitInNextInterval() throws InterruptedException {
+        WarnRateLimiter limiter = new WarnRateLimiter(1, Duration.ofMillis(20));
+
+        assertTrue(limiter.tryAcquire(), "Первое предупреждение должно пройти");
+        assertFalse(limiter.tryAcquire(), "Второе предупреждение в том же интервале должно быть отброшено");
+        Thread.sleep(40);
+        assertTrue(limiter.tryAcquire(), "В новом интервале предупреждение должно пройти");
+    }
+}
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Задержки, размеры хранилищ и ошибки доступны в формате Prometheus")
+    void prometheusEndpoint_ShouldExposeFilmorateMetrics() throws Exception {
+        MvcResult films = mockMvc.perform(get("/films"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(films))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/films/{id}/like/{userId}", 999_999, 1))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"N\", \"description\": \"D\", "
+                                + "\"releaseDate\": \"2000-01-01\", \"duration\": 90}"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/films\"")))
+                .andExpect(content().string(containsString("filmorate_storage_size{entity=\"films\"")))
+                .andExpect(content().string(containsString("filmorate_ids_allocated_total{entity=\"users\"")))
+                .andExpect(content().string(containsString(
+                        "filmorate_errors_total{exception=\"NotFoundException\",handler=\"notFound\"")))
+                .andExpect(content().string(containsString("filmorate_errors_total"
+                        + "{exception=\"ConditionsNotMetException\",handler=\"conditionsNotMet\"")));
+    }
+}
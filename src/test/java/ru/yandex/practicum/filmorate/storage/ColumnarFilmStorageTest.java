@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarFilmStorageTest {
+    private ColumnarFilmStorage storage;
+
+    @BeforeEach
+    void beforeEach() {
+        storage = new ColumnarFilmStorage(new IdGenerator());
+    }
+
+    @Test
+    @DisplayName("фильм восстанавливается из колонок без потерь")
+    void addAndFind() {
+        storage.add(film(null, "Name", "Description", 120));
+
+        Film found = storage.findById(1L).orElseThrow();
+        assertEquals("Name", found.getName(), "Неверное название");
+        assertEquals("Description", found.getDescription(), "Неверное описание");
+        assertEquals(LocalDate.of(2000, 1, 1), found.getReleaseDate(), "Неверная дата релиза");
+        assertEquals(120, found.getDuration(), "Неверная продолжительность");
+    }
+
+    @Test
+    @DisplayName("обновление перезаписывает колонки и поддерживает null")
+    void update() {
+        storage.add(film(null, "Name", "Description", 120));
+        storage.add(film(null, "Name", "Description", 90));
+
+        assertTrue(storage.update(film(1L, "New", "Other", null)).isPresent(), "Фильм не обновлён");
+        assertTrue(storage.update(film(3L, "New", "Other", 1)).isEmpty(), "Обновлён несуществующий фильм");
+
+        Film updated = storage.findById(1L).orElseThrow();
+        assertEquals("New", updated.getName(), "Неверное название");
+        assertNull(updated.getDuration(), "Продолжительность должна быть пустой");
+        assertEquals("Name", storage.findById(2L).orElseThrow().getName(), "Затронут соседний фильм");
+    }
+
+    @Test
+    @DisplayName("выборка после курсора идёт в порядке id")
+    void findAfter() {
+        for (int i = 0; i < 5; i++) {
+            storage.add(film(null, "Name" + i, "Description", 100));
+        }
+
+        List<Long> ids = storage.findAfter(2L).stream().map(Film::getId).toList();
+        assertEquals(List.of(3L, 4L, 5L), ids, "Неверный порядок или граница выборки");
+        assertEquals(5, storage.findAll().size(), "Неверное количество фильмов");
+    }
+
+    private static Film film(Long id, String name, String description, Integer duration) {
+        return Film.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(duration)
+                .build();
+    }
+}
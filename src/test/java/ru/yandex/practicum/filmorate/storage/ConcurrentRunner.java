@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Запуск одной задачи в нескольких потоках одновременно для тестов хранилищ.
+// Потоки стартуют по общей защёлке, чтобы действительно пересекаться, а ошибка любого из них
+// пробрасывается из run и валит тест.
+final class ConcurrentRunner {
+
+    private ConcurrentRunner() {
+    }
+
+    static void run(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int number = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(number);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Номер потока от 0 до threads - 1
+    @FunctionalInterface
+    interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdSequenceTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+    private static final int BLOCK_SIZE = 8;
+
+    private IdSequence sequence;
+
+    @BeforeEach
+    void beforeEach() {
+        sequence = new IdSequence();
+    }
+
+    @Test
+    @DisplayName("блок занимает ровно size id сразу за текущим, следующий id идёт после блока")
+    void blockBoundaries() {
+        assertEquals(1, sequence.next(), "Первый id должен быть 1");
+
+        IdSequence.Block block = sequence.nextBlock(5);
+        assertEquals(2, block.first(), "Блок должен начинаться сразу за выданным id");
+        assertEquals(6, block.last(), "Неверная граница блока");
+        assertEquals(5, block.size(), "Неверный размер блока");
+        assertEquals(6, sequence.current(), "Счётчик должен стоять на последнем id блока");
+
+        IdSequence.Block single = sequence.nextBlock(1);
+        assertEquals(7, single.first(), "Блок из одного id пересёкся с предыдущим");
+        assertEquals(7, single.last(), "Блок из одного id должен состоять из одного id");
+        assertEquals(8, sequence.next(), "id после блока должен идти сразу за ним");
+        assertThrows(IllegalArgumentException.class, () -> sequence.nextBlock(0), "Пустой блок не должен выдаваться");
+        assertEquals(8, sequence.current(), "Отклонённый блок сдвинул счётчик");
+    }
+
+    @Test
+    @DisplayName("reseed поднимает счётчик выше восстановленных id и никогда не опускает его")
+    void reseedOnlyMovesForward() {
+        sequence.next();
+        sequence.next();
+
+        sequence.reseed(100);
+        assertEquals(101, sequence.next(), "После reseed id должны продолжаться за восстановленными");
+
+        sequence.reseed(50);
+        assertEquals(102, sequence.next(), "reseed ниже текущего значения опустил счётчик");
+        assertEquals(103, sequence.nextBlock(3).first(), "Блок после reseed пересёкся с выданными id");
+    }
+
+    @Test
+    @DisplayName("параллельные next и nextBlock выдают уникальные id без пропусков")
+    void concurrentIdsAreUnique() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        ConcurrentRunner.run(THREADS, thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (i % 2 == 0) {
+                    if (!ids.add(sequence.next())) {
+                        duplicates.incrementAndGet();
+                    }
+                } else {
+                    IdSequence.Block block = sequence.nextBlock(BLOCK_SIZE);
+                    for (long id = block.first(); id <= block.last(); id++) {
+                        if (!ids.add(id)) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        });
+
+        long expected = (long) THREADS * OPERATIONS_PER_THREAD / 2 * (1 + BLOCK_SIZE);
+        assertEquals(0, duplicates.get(), "Один id выдан дважды");
+        assertEquals(expected, ids.size(), "Выдано неверное число id");
+        assertEquals(expected, sequence.current(), "Счётчик разошёлся с числом выданных id");
+        assertTrue(ids.stream().allMatch(id -> id >= 1 && id <= expected), "Между выданными id есть пропуски");
+    }
+
+    @Test
+    @DisplayName("у фильмов и пользователей независимые последовательности")
+    void generatorKeepsSequencesApart() {
+        IdGenerator generator = new IdGenerator();
+        generator.films().nextBlock(10);
+
+        assertEquals(1, generator.users().next(), "Блок фильмов сдвинул id пользователей");
+        assertEquals(11, generator.films().next(), "id фильмов не продолжились за блоком");
+    }
+}
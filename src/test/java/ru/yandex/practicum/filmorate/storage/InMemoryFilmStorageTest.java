@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryFilmStorageTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    private FilmStorage storage;
+
+    @BeforeEach
+    void beforeEach() {
+        storage = new InMemoryFilmStorage(new IdGenerator());
+    }
+
+    @Test
+    @DisplayName("параллельное добавление не теряет фильмы и не дублирует id")
+    void concurrentAddKeepsEveryFilm() throws Exception {
+        ConcurrentRunner.run(THREADS, thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                storage.add(film(null, "t" + thread + "-" + i));
+            }
+        });
+
+        int expected = THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(expected, storage.findAll().size(), "Потеряны добавленные фильмы");
+        assertEquals(expected, storage.findAll().stream().map(Film::getId).distinct().count(),
+                "Выданы повторяющиеся id");
+    }
+
+    @Test
+    @DisplayName("параллельное обновление применяет каждое изменение")
+    void concurrentUpdateLosesNothing() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            ids.add(storage.add(film(null, "initial")).getId());
+        }
+
+        ConcurrentRunner.run(THREADS, thread -> {
+            long id = ids.get(thread);
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                storage.update(film(id, "t" + thread + "-" + i));
+                // Одновременно читаем чужие записи, чтобы проверить, что чтение не мешает записи
+                storage.findById(ids.get((thread + 1) % THREADS));
+            }
+        });
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            Film film = storage.findById(ids.get(thread)).orElseThrow();
+            assertEquals("t" + thread + "-" + (OPERATIONS_PER_THREAD - 1), film.getName(),
+                    "Последнее обновление потеряно");
+        }
+    }
+
+    @Test
+    @DisplayName("параллельные обновления одного фильма не теряются и не смешиваются")
+    void concurrentUpdatesOfSameFilmLoseNothing() throws Exception {
+        long id = storage.add(film(null, "initial")).getId();
+
+        ConcurrentRunner.run(THREADS, thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Film update = film(id, "t" + thread + "-" + i);
+                update.setDescription("t" + thread + "-" + i);
+                storage.update(update);
+            }
+        });
+
+        Film film = storage.findById(id).orElseThrow();
+        assertEquals(EntityVersions.INITIAL + THREADS * OPERATIONS_PER_THREAD, film.getVersion(),
+                "Каждое обновление должно увеличить версию ровно на единицу");
+        assertEquals(film.getName(), film.getDescription(), "Поля взяты из разных обновлений");
+        assertTrue(film.getName().endsWith("-" + (OPERATIONS_PER_THREAD - 1)),
+                "Итогом должно быть последнее обновление одного из потоков");
+    }
+
+    @Test
+    @DisplayName("обновления с проверкой версии не теряются при гонке за один фильм")
+    void concurrentVersionedUpdatesLoseNothing() throws Exception {
+        long id = storage.add(film(null, "0")).getId();
+        int updatesPerThread = 200;
+
+        ConcurrentRunner.run(THREADS, thread -> {
+            for (int i = 0; i < updatesPerThread; i++) {
+                boolean applied = false;
+                while (!applied) {
+                    Film current = storage.findById(id).orElseThrow();
+                    Film next = current.toBuilder()
+                            .name(String.valueOf(Integer.parseInt(current.getName()) + 1))
+                            .build();
+                    try {
+                        storage.update(next);
+                        applied = true;
+                    } catch (ConflictException e) {
+                        // фильм изменили между чтением и записью — перечитываем
+                    }
+                }
+            }
+        });
+
+        Film film = storage.findById(id).orElseThrow();
+        int expected = THREADS * updatesPerThread;
+        assertEquals(String.valueOf(expected), film.getName(), "Потеряны обновления");
+        assertEquals(expected + 1, film.getVersion(), "Версия должна расти на каждое обновление");
+    }
+
+    @Test
+    @DisplayName("обновление несуществующего фильма не создаёт запись")
+    void updateMissingFilm() {
+        assertTrue(storage.update(film(42L, "missing")).isEmpty(), "Обновлён несуществующий фильм");
+        assertTrue(storage.findAll().isEmpty(), "Фильм не должен был появиться");
+    }
+
+    private static Film film(Long id, String name) {
+        return Film.builder()
+                .id(id)
+                .name(name)
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build();
+    }
+}
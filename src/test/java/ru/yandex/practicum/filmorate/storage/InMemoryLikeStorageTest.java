@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class InMemoryLikeStorageTest {
+    private static final int THREADS = 16;
+    private static final int USERS_PER_THREAD = 1_000;
+
+    private LikeStorage storage;
+
+    @BeforeEach
+    void beforeEach() {
+        storage = new InMemoryLikeStorage();
+    }
+
+    @Test
+    @DisplayName("рейтинг упорядочен по числу лайков и меняется при снятии лайка")
+    void popularFollowsLikeChanges() {
+        storage.addLike(1, 1);
+        storage.addLike(2, 1);
+        storage.addLike(2, 2);
+        storage.addLike(3, 1);
+        assertFalse(storage.addLike(3, 1), "Повторный лайк засчитан");
+
+        assertEquals(List.of(2L, 1L, 3L), storage.findPopularIds(10), "Неверный порядок популярных");
+        assertEquals(List.of(2L), storage.findPopularIds(1), "Не соблюдён размер выборки");
+
+        storage.removeLike(2, 1);
+        storage.removeLike(2, 2);
+        storage.addLike(3, 2);
+        assertEquals(List.of(3L, 1L), storage.findPopularIds(10), "Рейтинг не обновился после снятия лайков");
+        assertEquals(0, storage.countLikes(2), "Счётчик не обнулился");
+    }
+
+    @Test
+    @DisplayName("параллельные лайки одного фильма не теряются ни в счётчике, ни в рейтинге")
+    void concurrentLikesReachRating() throws Exception {
+        storage.addLike(2, 0);
+        storage.addLike(2, -1);
+        ConcurrentRunner.run(THREADS, thread -> {
+            long firstUser = (long) thread * USERS_PER_THREAD + 1;
+            for (long userId = firstUser; userId < firstUser + USERS_PER_THREAD; userId++) {
+                storage.addLike(1, userId);
+                if (userId % 2 == 0) {
+                    storage.removeLike(1, userId);
+                }
+            }
+        });
+
+        assertEquals(THREADS * USERS_PER_THREAD / 2, storage.countLikes(1), "Потеряны лайки");
+        assertEquals(List.of(1L, 2L), storage.findPopularIds(10), "Рейтинг отстал от счётчика");
+    }
+}
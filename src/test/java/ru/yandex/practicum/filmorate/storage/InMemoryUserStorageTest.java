@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryUserStorageTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    private UserStorage storage;
+
+    @BeforeEach
+    void beforeEach() {
+        storage = new InMemoryUserStorage(new IdGenerator());
+    }
+
+    @Test
+    @DisplayName("параллельное добавление не теряет пользователей и не дублирует id")
+    void concurrentAddKeepsEveryUser() throws Exception {
+        ConcurrentRunner.run(THREADS, thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                storage.add(user(null, "t" + thread + "-" + i));
+            }
+        });
+
+        int expected = THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(expected, storage.findAll().size(), "Потеряны добавленные пользователи");
+        assertEquals(expected, storage.count(), "Счётчик записей разошёлся с картой");
+        assertEquals(expected, storage.findAll().stream().map(User::getId).distinct().count(),
+                "Выданы повторяющиеся id");
+    }
+
+    @Test
+    @DisplayName("параллельные обновления одного пользователя не теряются и не смешиваются")
+    void concurrentUpdatesOfSameUserLoseNothing() throws Exception {
+        long id = storage.add(user(null, "initial")).getId();
+
+        ConcurrentRunner.run(THREADS, thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                User update = user(id, "t" + thread + "-" + i);
+                update.setName("t" + thread + "-" + i);
+                storage.update(update);
+            }
+        });
+
+        User user = storage.findById(id).orElseThrow();
+        assertEquals(EntityVersions.INITIAL + THREADS * OPERATIONS_PER_THREAD, user.getVersion(),
+                "Каждое обновление должно увеличить версию ровно на единицу");
+        assertEquals(user.getLogin(), user.getName(), "Поля взяты из разных обновлений");
+        assertTrue(user.getLogin().endsWith("-" + (OPERATIONS_PER_THREAD - 1)),
+                "Итогом должно быть последнее обновление одного из потоков");
+    }
+
+    @Test
+    @DisplayName("обновления с проверкой версии не теряются при гонке за одного пользователя")
+    void concurrentVersionedUpdatesLoseNothing() throws Exception {
+        long id = storage.add(user(null, "0")).getId();
+        int updatesPerThread = 200;
+
+        ConcurrentRunner.run(THREADS, thread -> {
+            for (int i = 0; i < updatesPerThread; i++) {
+                boolean applied = false;
+                while (!applied) {
+                    User current = storage.findById(id).orElseThrow();
+                    User next = current.toBuilder()
+                            .login(String.valueOf(Integer.parseInt(current.getLogin()) + 1))
+                            .build();
+                    try {
+                        storage.update(next);
+                        applied = true;
+                    } catch (ConflictException e) {
+                        // пользователя изменили между чтением и записью — перечитываем
+                    }
+                }
+            }
+        });
+
+        User user = storage.findById(id).orElseThrow();
+        int expected = THREADS * updatesPerThread;
+        assertEquals(String.valueOf(expected), user.getLogin(), "Потеряны обновления");
+        assertEquals(expected + 1, user.getVersion(), "Версия должна расти на каждое обновление");
+    }
+
+    @Test
+    @DisplayName("обновление несуществующего пользователя не создаёт запись")
+    void updateMissingUser() {
+        assertTrue(storage.update(user(42L, "missing")).isEmpty(), "Обновлён несуществующий пользователь");
+        assertTrue(storage.findAll().isEmpty(), "Пользователь не должен был появиться");
+    }
+
+    private static User user(Long id, String login) {
+        return User.builder()
+                .id(id)
+                .email(login + "@example.com")
+                .login(login)
+                .name("Name")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.storage.events;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.ChangeType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeEventBufferTest {
+    private static final int WRITERS = 8;
+    private static final int EVENTS_PER_WRITER = 5_000;
+
+    @Test
+    @DisplayName("читатель получает события всех писателей по порядку, и события каждой сущности не переставлены")
+    void readerSeesEveryEventInOrder() throws Exception {
+        ChangeEventBuffer buffer = new ChangeEventBuffer(1 << 16);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1);
+        try {
+            Future<List<ChangeEvent>> reader = executor.submit(() -> {
+                List<ChangeEvent> events = new ArrayList<>();
+                long next = 1;
+                while (events.size() < WRITERS * EVENTS_PER_WRITER) {
+                    ChangeEvent event = buffer.get(next);
+                    if (event == null) {
+                        buffer.await(next, Duration.ofSeconds(1));
+                        continue;
+                    }
+                    events.add(event);
+                    next++;
+                }
+                return events;
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                long entityId = writer;
+                writers.add(executor.submit(() -> {
+                    for (int version = 0; version < EVENTS_PER_WRITER; version++) {
+                        buffer.publish(ChangeType.FILM_UPDATED, entityId, version);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+
+            List<ChangeEvent> events = reader.get();
+            Map<Long, Integer> lastVersions = new HashMap<>();
+            for (int i = 0; i < events.size(); i++) {
+                assertEquals(i + 1, events.get(i).getSequence(), "Пропущен номер события");
+                int version = (Integer) events.get(i).getEntity();
+                Integer previous = lastVersions.put(events.get(i).getEntityId(), version);
+                assertEquals(previous == null ? 0 : previous + 1, version, "События одной сущности переставлены");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("перезаписанные события недоступны, а отставание обнаруживается")
+    void overwrittenEventsAreDetected() throws Exception {
+        ChangeEventBuffer buffer = new ChangeEventBuffer(4);
+        for (int i = 1; i <= 10; i++) {
+            buffer.publish(ChangeType.USER_CREATED, i, "user" + i);
+        }
+
+        assertEquals(7, buffer.oldestSequence(), "Неверный номер самого старого события");
+        assertTrue(buffer.isOverwritten(6), "Перезаписанное событие считается доступным");
+        assertNull(buffer.get(6), "Вернулось перезаписанное событие");
+        assertNotNull(buffer.get(7), "Доступное событие не найдено");
+        assertFalse(buffer.await(11, Duration.ofMillis(10)), "Дождались ещё не опубликованного события");
+    }
+}
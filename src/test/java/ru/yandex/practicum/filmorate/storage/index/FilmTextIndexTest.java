@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilmTextIndexTest {
+    private FilmTextIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new FilmTextIndex();
+    }
+
+    @Test
+    @DisplayName("поиск не зависит от регистра, алфавита и буквы «ё»")
+    void tokenization() {
+        index.index(film(1L, "Ёлки", "Новогодняя комедия"));
+        index.index(film(2L, "The Matrix", "Sci-fi about Neo"));
+
+        assertEquals(List.of(1L), index.search("елки", 10, id -> true), "Не найден фильм на кириллице");
+        assertEquals(List.of(1L), index.search("КОМЕДИЯ!", 10, id -> true), "Регистр влияет на поиск");
+        assertEquals(List.of(2L), index.search("matrix", 10, id -> true), "Не найден фильм на латинице");
+        assertTrue(index.search("a", 10, id -> true).isEmpty(), "Слишком короткие слова не индексируются");
+    }
+
+    @Test
+    @DisplayName("совпадение в названии весит больше, чем в описании")
+    void ranking() {
+        index.index(film(1L, "Тихий Дон", "Казаки на Дону"));
+        index.index(film(2L, "Казаки", "Повесть о Доне"));
+        index.index(film(3L, "Другое", "Без совпадений"));
+
+        assertEquals(List.of(2L, 1L), index.search("казаки", 10, id -> true), "Неверный порядок по релевантности");
+        assertEquals(List.of(2L), index.search("казаки", 1, id -> true), "Не соблюдён limit");
+        assertEquals(List.of(1L), index.search("казаки", 10, id -> id == 1L), "Не применён фильтр");
+    }
+
+    @Test
+    @DisplayName("обновление убирает старые слова и сохраняет их после слияния списков")
+    void incrementalUpdate() {
+        for (long id = 1; id <= 500; id++) {
+            index.index(film(id, "Фильм " + id, "Общее описание"));
+        }
+        for (long id = 1; id <= 500; id += 2) {
+            index.index(film(id, "Кино " + id, "Другое описание"));
+        }
+
+        assertEquals(250, index.search("общее", 1000, id -> true).size(), "Старые слова не удалены");
+        assertEquals(250, index.search("кино", 1000, id -> true).size(), "Новые слова не добавлены");
+        assertEquals(500, index.search("описание", 1000, id -> true).size(), "Потеряны общие слова");
+    }
+
+    @Test
+    @DisplayName("частота терма считает каждый документ один раз, даже если он есть и в основе, и в буфере")
+    void documentFrequencyCountsEachIdOnce() {
+        PostingList postingList = new PostingList();
+        for (long id = 1; id <= 200; id++) {
+            postingList.put(id, 1);
+        }
+        // Первые документы уже слиты в основу, повторная запись кладёт их ещё и в буфер добавлений
+        for (long id = 1; id <= 50; id++) {
+            postingList.put(id, 2);
+        }
+        postingList.remove(1_000);
+
+        assertEquals(200, postingList.documentFrequency(), "Документы посчитаны несколько раз");
+    }
+
+    private static Film film(long id, String name, String description) {
+        return Film.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .build();
+    }
+}
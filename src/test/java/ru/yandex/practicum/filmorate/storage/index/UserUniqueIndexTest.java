@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserUniqueIndexTest {
+    private static final int THREADS = 16;
+
+    private final UserUniqueIndex index = new UserUniqueIndex();
+
+    @Test
+    @DisplayName("из параллельных заявок на один email проходит ровно одна")
+    void concurrentClaimsHaveSingleWinner() throws Exception {
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int thread = 0; thread < THREADS; thread++) {
+                long id = thread + 1;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        index.claim(id, user(id, "Same@Mail.ru", "login" + id));
+                        winners.incrementAndGet();
+                    } catch (ConflictException ignored) {
+                        // Проигравший не должен оставить за собой логин
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(1, winners.get(), "Email должен достаться ровно одному пользователю");
+        long winner = -1;
+        for (long id = 1; id <= THREADS; id++) {
+            OptionalLong found = index.findByLogin("login" + id);
+            if (found.isPresent()) {
+                assertEquals(-1, winner, "Логин занят проигравшей заявкой");
+                winner = found.getAsLong();
+            }
+        }
+        assertNotEquals(-1, winner, "Логин победителя не найден");
+    }
+
+    @Test
+    @DisplayName("бронь переходит к выданному id, освобождаются только изменённые ключи")
+    void reservationAndRelease() {
+        long reservation = index.reserve();
+        User created = user(null, "a@mail.ru", "alpha");
+        index.claim(reservation, created);
+        assertEquals(OptionalLong.empty(), index.findByLogin("alpha"), "Бронь не должна находиться поиском");
+
+        created.setId(7L);
+        index.bind(reservation, created);
+        assertEquals(OptionalLong.of(7), index.findByLogin("ALPHA"), "Логин не привязан к id");
+
+        User renamed = user(7L, "a@mail.ru", "beta");
+        index.claim(7, renamed);
+        index.release(7, created, renamed);
+        assertEquals(OptionalLong.empty(), index.findByLogin("alpha"), "Прежний логин не освобождён");
+        assertEquals(OptionalLong.of(7), index.findByLogin("beta"), "Новый логин не найден");
+        assertThrows(ConflictException.class, () -> index.claim(8, user(8L, " A@MAIL.RU ", "gamma")),
+                "Email должен остаться занят");
+        assertEquals(OptionalLong.empty(), index.findByLogin("gamma"), "Логин отклонённой заявки занят");
+    }
+
+    private static User user(Long id, String email, String login) {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .login(login)
+                .build();
+    }
+}
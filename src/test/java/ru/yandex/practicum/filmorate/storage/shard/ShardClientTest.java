@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardClientTest {
+    private ServerSocket silent;
+    private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+
+    // Шард, который принимает соединения, но никогда не отвечает
+    @BeforeEach
+    void beforeEach() throws IOException {
+        silent = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            while (!silent.isClosed()) {
+                try {
+                    accepted.add(silent.accept());
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }, "silent-shard");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        silent.close();
+        for (Socket socket : accepted) {
+            socket.close();
+        }
+    }
+
+    @Test
+    @DisplayName("зависший шард не держит запрос дольше таймаута, соединение после таймаута не переиспользуется")
+    void readTimeoutDiscardsConnection() throws Exception {
+        try (ShardClient client = new ShardClient("localhost:" + silent.getLocalPort(), Duration.ofSeconds(1),
+                Duration.ofMillis(200))) {
+            long started = System.nanoTime();
+            UncheckedIOException error = assertThrows(UncheckedIOException.class,
+                    () -> client.get(ShardEntity.FILM, 1));
+            assertInstanceOf(SocketTimeoutException.class, error.getCause(), "Ожидался таймаут чтения");
+            assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 5_000,
+                    "Запрос должен завершиться по таймауту");
+
+            assertThrows(UncheckedIOException.class, () -> client.get(ShardEntity.FILM, 2));
+            assertEquals(2, accepted.size(), "Второй запрос должен открыть новое соединение");
+        }
+    }
+
+    @Test
+    @DisplayName("отправка в шард, который не читает запрос, прерывается по сроку")
+    void writeTimeoutDiscardsConnection() throws Exception {
+        // Запрос заведомо больше буферов сокетов: без срока запись ждала бы вечно
+        Film film = Film.builder()
+                .id(1L)
+                .name("Name")
+                .description("D".repeat(1_000))
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .version(1L)
+                .build();
+        List<Film> films = Collections.nCopies(64_000, film);
+        try (ShardClient client = new ShardClient("localhost:" + silent.getLocalPort(), Duration.ofSeconds(1),
+                Duration.ofMillis(200))) {
+            long started = System.nanoTime();
+            UncheckedIOException error = assertThrows(UncheckedIOException.class,
+                    () -> client.putAll(ShardEntity.FILM, films));
+            assertInstanceOf(SocketTimeoutException.class, error.getCause(), "Ожидался таймаут отправки");
+            assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 5_000,
+                    "Отправка должна завершиться по сроку");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardClusterTest {
+    private static final int FILMS = 1_000;
+
+    private final List<ShardServer> servers = new ArrayList<>();
+    private ShardCluster cluster;
+    private ShardedFilmStorage storage;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            servers.add(new ShardServer(0));
+        }
+        cluster = cluster(address(0), address(1));
+        storage = new ShardedFilmStorage(cluster, new IdGenerator());
+    }
+
+    @AfterEach
+    void afterEach() throws Exception {
+        cluster.close();
+        for (ShardServer server : servers) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("фильмы распределяются по шардам, обход сливает их по порядку id")
+    void scatterGatherKeepsOrder() {
+        addFilms();
+
+        assertTrue(servers.get(0).count(ShardEntity.FILM) > 0, "Первый шард пуст");
+        assertTrue(servers.get(1).count(ShardEntity.FILM) > 0, "Второй шард пуст");
+        assertEquals(FILMS, storage.count(), "Неверное число фильмов");
+        assertOrderedAndComplete(storage.findAll().stream().map(Film::getId).toList(), 1);
+        assertOrderedAndComplete(storage.findAfter(500).stream().map(Film::getId).toList(), 501);
+        assertEquals(List.of(700L, 3L, 950L), storage.findByIds(List.of(700L, 3L, 5_000L, 950L)).stream()
+                .map(Film::getId)
+                .toList(), "Пакетное чтение должно сохранять порядок запроса");
+    }
+
+    @Test
+    @DisplayName("версия проверяется на шарде")
+    void updateConflictComesFromShard() {
+        Film film = storage.add(film("Фильм"));
+        Film stale = film.toBuilder().name("Старое").build();
+
+        Film updated = storage.update(film.toBuilder().name("Новое").build()).orElseThrow();
+        assertEquals(2, updated.getVersion(), "Версия должна увеличиться");
+        assertThrows(ConflictException.class, () -> storage.update(stale), "Устаревшая версия должна отклоняться");
+        assertEquals("Новое", storage.findById(film.getId()).orElseThrow().getName(), "Изменение потеряно");
+    }
+
+    @Test
+    @DisplayName("новый шард забирает часть ключей, данные остаются доступны")
+    void addShardRebalances() {
+        addFilms();
+
+        long moved = cluster.addShard(address(2));
+
+        long onNewShard = servers.get(2).count(ShardEntity.FILM);
+        assertEquals(moved, onNewShard, "На новый шард должны попасть все перенесённые записи");
+        assertTrue(onNewShard > FILMS / 6 && onNewShard < FILMS / 2,
+                "Новому шарду должна достаться примерно треть ключей, а не " + onNewShard);
+        assertEquals(FILMS, servers.stream().mapToLong(server -> server.count(ShardEntity.FILM)).sum(),
+                "Записи потеряны или продублированы при переносе");
+        assertOrderedAndComplete(storage.findAll().stream().map(Film::getId).toList(), 1);
+        for (long id = 1; id <= FILMS; id++) {
+            assertTrue(storage.findById(id).isPresent(), "Фильм " + id + " не найден после переноса");
+        }
+    }
+
+    @Test
+    @DisplayName("при запуске с новым узлом в конфигурации ключи переносятся до начала работы")
+    void startupRebalancesChangedRing() {
+        addFilms();
+        cluster.close();
+
+        cluster = cluster(address(0), address(1), address(2));
+        storage = new ShardedFilmStorage(cluster, new IdGenerator());
+
+        long onNewShard = servers.get(2).count(ShardEntity.FILM);
+        assertTrue(onNewShard > FILMS / 6 && onNewShard < FILMS / 2,
+                "Новому шарду должна достаться примерно треть ключей, а не " + onNewShard);
+        assertEquals(FILMS, servers.stream().mapToLong(server -> server.count(ShardEntity.FILM)).sum(),
+                "Записи потеряны или продублированы при переносе");
+        assertEquals(FILMS, storage.count(), "Число фильмов должно учитывать все шарды");
+        for (long id = 1; id <= FILMS; id++) {
+            assertTrue(storage.findById(id).isPresent(), "Фильм " + id + " не найден после переноса");
+        }
+    }
+
+    @Test
+    @DisplayName("обход, начатый до добавления шарда, выдаёт все фильмы по одному разу")
+    void iterationSurvivesAddShard() {
+        addFilms();
+        List<Long> ids = new ArrayList<>(FILMS);
+        Iterator<Film> iterator = storage.findAll().iterator();
+        for (int i = 0; i < 100; i++) {
+            ids.add(iterator.next().getId());
+        }
+
+        cluster.addShard(address(2));
+        iterator.forEachRemaining(film -> ids.add(film.getId()));
+
+        assertOrderedAndComplete(ids, 1);
+    }
+
+    private ShardCluster cluster(String... addresses) {
+        return new ShardCluster(List.of(addresses), 128, Duration.ofSeconds(2), Duration.ofSeconds(5));
+    }
+
+    private void addFilms() {
+        List<Film> films = new ArrayList<>(FILMS);
+        for (int i = 0; i < FILMS; i++) {
+            films.add(film("Фильм " + i));
+        }
+        storage.addAll(films);
+    }
+
+    private String address(int server) {
+        return "localhost:" + servers.get(server).port();
+    }
+
+    private static void assertOrderedAndComplete(List<Long> ids, long first) {
+        assertEquals(FILMS - first + 1, ids.size(), "Обход вернул не все фильмы");
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(first + i, ids.get(i), "Нарушен порядок id при слиянии");
+        }
+    }
+
+    private static Film film(String name) {
+        return Film.builder()
+                .name(name)
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package ru.yandex.practicum.filmorate.storage.snapshot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.ColumnarFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFriendStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.StorageRecovery;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.events.ChangeEventBuffer;
+import ru.yandex.practicum.filmorate.storage.index.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmTextIndex;
+import ru.yandex.practicum.filmorate.storage.index.UserUniqueIndex;
+import ru.yandex.practicum.filmorate.storage.wal.DisabledWriteAheadLog;
+import ru.yandex.practicum.filmorate.storage.wal.MappedWriteAheadLog;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotManagerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("снимок во время обновления не теряет его: сегмент с изменением удаляется только после применения")
+    void snapshotDuringUpdateKeepsAcknowledgedChange() throws Exception {
+        Path walDirectory = directory.resolve("wal");
+        Path file = directory.resolve("snapshot.bin");
+        IdGenerator ids = new IdGenerator();
+        CountDownLatch logged = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Хранилище задерживает применение обновления, уже записанного в журнал
+        FilmStorage films = new InMemoryFilmStorage(ids) {
+            @Override
+            public Optional<Film> update(Film film) {
+                logged.countDown();
+                await(release);
+                return super.update(film);
+            }
+        };
+        UserStorage users = new InMemoryUserStorage(ids);
+        FriendStorage friends = new InMemoryFriendStorage();
+        LikeStorage likes = new InMemoryLikeStorage();
+        MappedWriteAheadLog wal = new MappedWriteAheadLog(walDirectory, 1 << 16, Duration.ZERO, 64);
+        FilmRangeIndex rangeIndex = new FilmRangeIndex();
+        FilmTextIndex textIndex = new FilmTextIndex();
+        FilmService service = new FilmService(films, users, likes, ids, wal, new ChangeEventBuffer(16),
+                List.of(rangeIndex, textIndex), rangeIndex, textIndex);
+        SnapshotManager snapshots = new SnapshotManager(films, users, friends, likes, wal, file, 64);
+        Film film = service.add(film("Старое"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<Film>> update = executor.submit(() ->
+                    service.update(film.toBuilder().name("Новое").version(null).build()));
+            logged.await();
+            Future<?> snapshot = executor.submit(() -> {
+                snapshots.takeSnapshot();
+                return null;
+            });
+            assertThrows(TimeoutException.class, () -> snapshot.get(200, TimeUnit.MILLISECONDS),
+                    "Снимок не должен начинаться, пока записанное изменение не применено");
+            release.countDown();
+            assertEquals("Новое", update.get().orElseThrow().getName());
+            snapshot.get();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            wal.close();
+        }
+
+        IdGenerator restoredIds = new IdGenerator();
+        FilmStorage restoredFilms = new InMemoryFilmStorage(restoredIds);
+        UserStorage restoredUsers = new InMemoryUserStorage(restoredIds);
+        FriendStorage restoredFriends = new InMemoryFriendStorage();
+        LikeStorage restoredLikes = new InMemoryLikeStorage();
+        MappedWriteAheadLog reopened = new MappedWriteAheadLog(walDirectory, 1 << 16, Duration.ZERO, 64);
+        try {
+            new StorageRecovery(Optional.of(new SnapshotManager(restoredFilms, restoredUsers, restoredFriends,
+                    restoredLikes, reopened, file, 64)), reopened, restoredFilms, restoredUsers, restoredFriends,
+                    restoredLikes, List.of(), new UserUniqueIndex()).recover();
+        } finally {
+            reopened.close();
+        }
+
+        assertEquals("Новое", restoredFilms.findById(film.getId()).orElseThrow().getName(),
+                "Подтверждённое обновление потеряно после восстановления");
+    }
+
+    @Test
+    @DisplayName("снимок восстанавливает все сущности, друзей, лайки и счётчики id")
+    void snapshotRoundTrip() throws Exception {
+        IdGenerator idGenerator = new IdGenerator();
+        FilmStorage films = new InMemoryFilmStorage(idGenerator);
+        UserStorage users = new InMemoryUserStorage(idGenerator);
+        for (int i = 0; i < 1_000; i++) {
+            films.add(Film.builder()
+                    .name("Name " + i)
+                    .description("Description")
+                    .releaseDate(LocalDate.of(2000, 1, 1).plusDays(i))
+                    .duration(90 + i % 60)
+                    .build());
+        }
+        for (int i = 0; i < 300; i++) {
+            users.add(User.builder()
+                    .email("user" + i + "@mail.ru")
+                    .login("login" + i)
+                    .name("Name " + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+        }
+        FriendStorage friends = new InMemoryFriendStorage();
+        for (long id = 2; id <= 300; id++) {
+            friends.addFriend(1, id);
+            friends.addFriend(id, 1);
+        }
+        LikeStorage likes = new InMemoryLikeStorage();
+        likes.addLike(7, 1);
+        likes.addLike(7, 2);
+        likes.addLike(8, 1);
+        Path file = directory.resolve("snapshot.bin");
+        // Маленькие блоки, чтобы декодирование шло параллельно
+        new SnapshotManager(films, users, friends, likes, new DisabledWriteAheadLog(), file, 64).takeSnapshot();
+
+        IdGenerator restoredIds = new IdGenerator();
+        FilmStorage restoredFilms = new ColumnarFilmStorage(restoredIds);
+        UserStorage restoredUsers = new InMemoryUserStorage(restoredIds);
+        FriendStorage restoredFriends = new InMemoryFriendStorage();
+        LikeStorage restoredLikes = new InMemoryLikeStorage();
+        new SnapshotManager(restoredFilms, restoredUsers, restoredFriends, restoredLikes, new DisabledWriteAheadLog(), file, 64).restore();
+
+        assertEquals(List.copyOf(films.findAll()), List.copyOf(restoredFilms.findAll()), "Фильмы восстановлены не все");
+        assertEquals(films.findById(500).orElseThrow().getName(), restoredFilms.findById(500).orElseThrow().getName(),
+                "Фильм восстановлен с ошибками");
+        assertEquals(300, restoredUsers.findAll().size(), "Пользователи восстановлены не все");
+        assertEquals("login299", restoredUsers.findById(300).orElseThrow().getLogin(), "Пользователь восстановлен с ошибками");
+        assertEquals(299, restoredFriends.findFriendIds(1).length, "Друзья восстановлены не все");
+        assertEquals(1, restoredFriends.findCommonFriendIds(2, 3)[0], "Неверные общие друзья после восстановления");
+        assertEquals(List.of(7L, 8L), restoredLikes.findPopularIds(10), "Рейтинг не восстановлен из снимка");
+        assertEquals(1_001, restoredIds.films().next(), "Счётчик id фильмов не восстановлен");
+        assertEquals(301, restoredIds.users().next(), "Счётчик id пользователей не восстановлен");
+    }
+
+    private static Film film(String name) {
+        return Film.builder()
+                .name(name)
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
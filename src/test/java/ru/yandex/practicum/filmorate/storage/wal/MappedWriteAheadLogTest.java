@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.storage.wal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.EntityCodec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedWriteAheadLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("записи, подтверждённые журналом, восстанавливаются после перезапуска")
+    void replayAfterRestart() throws Exception {
+        MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 4096, Duration.ofMillis(1), 64);
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        // 200 записей не помещаются в один сегмент в 4 КБ и проверяют переход на следующий
+        for (long id = 1; id <= 200; id++) {
+            written.add(wal.append(WalRecordType.FILM_CREATED, EntityCodec.encodeFilm(film(id))));
+        }
+        CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).join();
+        wal.close();
+
+        MappedWriteAheadLog reopened = new MappedWriteAheadLog(directory, 4096, Duration.ofMillis(1), 64);
+        List<Film> replayed = new ArrayList<>();
+        reopened.replay(0, (type, payload) -> {
+            assertEquals(WalRecordType.FILM_CREATED, type, "Неверный тип записи");
+            replayed.add(EntityCodec.decodeFilm(payload));
+        });
+        reopened.close();
+
+        assertEquals(200, replayed.size(), "Потеряны записи журнала");
+        assertEquals(film(200L), replayed.get(199), "Неверный порядок записей");
+        assertEquals("Name 200", replayed.get(199).getName(), "Запись восстановлена с ошибками");
+    }
+
+    @Test
+    @DisplayName("перезапуск без записей не создаёт новых сегментов")
+    void restartWithoutWritesCreatesNoSegment() throws Exception {
+        MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 4096, Duration.ofMillis(1), 64);
+        wal.append(WalRecordType.FILM_CREATED, EntityCodec.encodeFilm(film(1L))).join();
+        wal.close();
+
+        for (int restart = 0; restart < 3; restart++) {
+            MappedWriteAheadLog reopened = new MappedWriteAheadLog(directory, 4096, Duration.ofMillis(1), 64);
+            reopened.close();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count(), "Перезапуски оставили пустые сегменты");
+        }
+    }
+
+    @Test
+    @DisplayName("контрольная точка без новых записей не переключает сегмент")
+    void checkpointWithoutWritesKeepsSegment() throws Exception {
+        MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 4096, Duration.ofMillis(1), 64);
+        long first = wal.checkpoint();
+        assertEquals(first, wal.checkpoint(), "Пустой сегмент не должен сменяться");
+
+        wal.append(WalRecordType.FILM_CREATED, EntityCodec.encodeFilm(film(1L))).join();
+        assertEquals(first + 1, wal.checkpoint(), "После записи контрольная точка открывает новый сегмент");
+        wal.close();
+    }
+
+    @Test
+    @DisplayName("запись, гонящаяся с закрытием, завершается записью или ошибкой, а не висит")
+    void appendRacingCloseNeverHangs() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            MappedWriteAheadLog wal = new MappedWriteAheadLog(directory.resolve("round-" + round), 1 << 16,
+                    Duration.ZERO, 64);
+            List<CompletableFuture<Void>> written = new CopyOnWriteArrayList<>();
+            CountDownLatch started = new CountDownLatch(1);
+            Thread appender = new Thread(() -> {
+                started.countDown();
+                for (long id = 1; id <= 2_000; id++) {
+                    written.add(wal.append(WalRecordType.FILM_CREATED, EntityCodec.encodeFilm(film(id))));
+                }
+            });
+            appender.start();
+            started.await();
+            wal.close();
+            appender.join();
+
+            for (CompletableFuture<Void> future : written) {
+                try {
+                    future.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    // запись после закрытия отклоняется — это ожидаемо
+                }
+            }
+            assertTrue(wal.append(WalRecordType.FILM_CREATED, EntityCodec.encodeFilm(film(1L)))
+                    .isCompletedExceptionally(), "После закрытия запись должна отклоняться сразу");
+        }
+    }
+
+    private static Film film(long id) {
+        return Film.builder()
+                .id(id)
+                .name("Name " + id)
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build();
+    }
+}